@@ -436,7 +436,7 @@ const EditVehicleModal = ({
 												}
 											>
 												<img
-													src={`/api/vehicles/images/${img}`}
+													src={`/api/vehicles/images/${img}?size=thumb`}
 													alt={`Vehicle ${index + 1}`}
 													className="w-full h-20 object-cover rounded"
 												/>
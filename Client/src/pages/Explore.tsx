@@ -406,7 +406,7 @@ function Explore() {
 							>
 								<div className="bg-gray-200 rounded-lg h-48 mb-4 flex items-center justify-center overflow-hidden">
 									<img
-										src={`/api/vehicles/images/${firstImage}`}
+										src={`/api/vehicles/images/${firstImage}?size=card`}
 										alt={`${vehicle.make} ${vehicle.model}`}
 										className="w-full h-full object-cover"
 										loading="lazy"
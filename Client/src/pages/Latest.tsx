@@ -135,7 +135,7 @@ function Latest() {
 												<div className="flex items-center justify-center mb-4 overflow-hidden bg-gray-200 h-48 rounded-lg">
 													{firstImage ? (
 														<img
-															src={`/api/vehicles/images/${firstImage}`}
+															src={`/api/vehicles/images/${firstImage}?size=card`}
 															alt={`${vehicle.make} ${vehicle.model}`}
 															className="w-full h-full object-cover"
 															loading="lazy"
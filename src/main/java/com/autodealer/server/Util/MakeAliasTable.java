@@ -0,0 +1,143 @@
+package com.autodealer.server.Util;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+// Immutable alias dictionary compiled into an array-backed trie over
+// lower-cased characters. lookup() walks the raw input, skipping surrounding
+// whitespace and folding case one char at a time, so resolving a make does
+// not allocate.
+//
+// Source format, one make per line ('#' starts a comment):
+//   Canonical Name: alias, alias, ...
+public final class MakeAliasTable {
+
+    private final char[][] keys; // per node, sorted child characters
+    private final int[][] children; // per node, child node for each key
+    private final String[] values; // per node, canonical make or null
+    private final Map<String, String> aliases;
+
+    private MakeAliasTable(char[][] keys, int[][] children, String[] values, Map<String, String> aliases) {
+        this.keys = keys;
+        this.children = children;
+        this.values = values;
+        this.aliases = aliases;
+    }
+
+    public static MakeAliasTable parse(Reader source) throws IOException {
+        Map<String, String> aliases = new LinkedHashMap<>();
+        BufferedReader reader = new BufferedReader(source);
+        String line;
+        int lineNumber = 0;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            int comment = line.indexOf('#');
+            if (comment >= 0)
+                line = line.substring(0, comment);
+            if (line.isBlank())
+                continue;
+
+            int colon = line.indexOf(':');
+            if (colon <= 0)
+                throw new IllegalArgumentException("Line " + lineNumber + ": expected 'Canonical: alias, ...'");
+
+            String canonical = line.substring(0, colon).trim();
+            aliases.put(canonical.toLowerCase(), canonical);
+            for (String alias : line.substring(colon + 1).split(",")) {
+                if (!alias.isBlank())
+                    aliases.put(alias.trim().toLowerCase(), canonical);
+            }
+        }
+        return compile(aliases);
+    }
+
+    // Canonical make for the input, or null if it is not a known alias
+    public String lookup(CharSequence input) {
+        int start = 0;
+        int end = input.length();
+        while (start < end && Character.isWhitespace(input.charAt(start)))
+            start++;
+        while (end > start && Character.isWhitespace(input.charAt(end - 1)))
+            end--;
+
+        int node = 0;
+        for (int i = start; i < end && node >= 0; i++) {
+            node = child(node, Character.toLowerCase(input.charAt(i)));
+        }
+        return node >= 0 ? values[node] : null;
+    }
+
+    // Every alias (lower case) mapped to its canonical make
+    public Map<String, String> aliases() {
+        return aliases;
+    }
+
+    public int size() {
+        return aliases.size();
+    }
+
+    private int child(int node, char c) {
+        char[] nodeKeys = keys[node];
+        int low = 0;
+        int high = nodeKeys.length - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (nodeKeys[mid] < c)
+                low = mid + 1;
+            else if (nodeKeys[mid] > c)
+                high = mid - 1;
+            else
+                return children[node][mid];
+        }
+        return -1;
+    }
+
+    // Builds a pointer trie, then flattens it breadth-first into arrays
+    private static MakeAliasTable compile(Map<String, String> aliases) {
+        final class BuildNode {
+            final TreeMap<Character, BuildNode> next = new TreeMap<>();
+            String value;
+            int index;
+        }
+
+        BuildNode root = new BuildNode();
+        for (Map.Entry<String, String> alias : aliases.entrySet()) {
+            BuildNode node = root;
+            for (char c : alias.getKey().toCharArray()) {
+                node = node.next.computeIfAbsent(Character.toLowerCase(c), k -> new BuildNode());
+            }
+            node.value = alias.getValue();
+        }
+
+        List<BuildNode> order = new ArrayList<>();
+        order.add(root);
+        for (int i = 0; i < order.size(); i++) {
+            BuildNode node = order.get(i);
+            node.index = i;
+            order.addAll(node.next.values());
+        }
+
+        char[][] keys = new char[order.size()][];
+        int[][] children = new int[order.size()][];
+        String[] values = new String[order.size()];
+        for (BuildNode node : order) {
+            keys[node.index] = new char[node.next.size()];
+            children[node.index] = new int[node.next.size()];
+            values[node.index] = node.value;
+            int k = 0;
+            for (Map.Entry<Character, BuildNode> child : node.next.entrySet()) {
+                keys[node.index][k] = child.getKey();
+                children[node.index][k] = child.getValue().index;
+                k++;
+            }
+        }
+        return new MakeAliasTable(keys, children, values, Collections.unmodifiableMap(aliases));
+    }
+}
@@ -0,0 +1,129 @@
+package com.autodealer.server.config;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.Semaphore;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.EntityManagerFactoryDependsOnPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.sqlite.SQLiteConfig;
+import org.sqlite.SQLiteDataSource;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+
+// SQLite allows many readers but only one writer at a time. The database runs
+// in WAL mode so readers never block on the writer, and connections are split
+// in two pools: read-only transactions (@Transactional(readOnly = true), which
+// includes Spring Data's find methods) get a read-only connection from a pool
+// sized to the CPU count, everything else goes through a single writer
+// connection. Writers queue for that connection instead of racing each other
+// into SQLITE_BUSY; the queue is bounded so a burst fails fast rather than
+// piling up request threads.
+@Configuration
+public class DataSourceConfig {
+
+    @Value("${spring.datasource.url}")
+    private String url;
+
+    @Value("${datasource.read-pool-size:0}")
+    private int readPoolSize; // 0 = one per available processor
+
+    @Value("${datasource.write-queue-size:64}")
+    private int writeQueueSize;
+
+    @Value("${datasource.write-timeout:10000}")
+    private long writeTimeout; // ms a queued writer waits for the connection
+
+    @Value("${datasource.busy-timeout:5000}")
+    private int busyTimeout;
+
+    @Bean(destroyMethod = "close")
+    public HikariDataSource writeDataSource() {
+        SQLiteConfig sqlite = pragmas();
+        sqlite.setJournalMode(SQLiteConfig.JournalMode.WAL);
+
+        HikariConfig config = new HikariConfig();
+        config.setPoolName("sqlite-write");
+        config.setDataSource(dataSource(sqlite));
+        config.setMaximumPoolSize(1);
+        config.setConnectionTimeout(writeTimeout);
+        return new HikariDataSource(config);
+    }
+
+    // Depends on the writer so WAL is switched on before any reader opens
+    @Bean(destroyMethod = "close")
+    public HikariDataSource readDataSource(HikariDataSource writeDataSource) {
+        SQLiteConfig sqlite = pragmas();
+        sqlite.setReadOnly(true);
+
+        int size = readPoolSize > 0 ? readPoolSize : Runtime.getRuntime().availableProcessors();
+        HikariConfig config = new HikariConfig();
+        config.setPoolName("sqlite-read");
+        config.setDataSource(dataSource(sqlite));
+        config.setMaximumPoolSize(size);
+        config.setReadOnly(true);
+        return new HikariDataSource(config);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(HikariDataSource writeDataSource, HikariDataSource readDataSource) {
+        LazyConnectionDataSourceProxy proxy = new LazyConnectionDataSourceProxy(
+                new WriteQueueDataSource(writeDataSource, writeQueueSize));
+        proxy.setReadOnlyDataSource(readDataSource);
+        return proxy;
+    }
+
+    // Hibernate only validates the schema, so migrations must run first
+    @Bean
+    public static EntityManagerFactoryDependsOnPostProcessor migrateBeforeJpa() {
+        return new EntityManagerFactoryDependsOnPostProcessor("schemaMigrator");
+    }
+
+    private SQLiteConfig pragmas() {
+        SQLiteConfig sqlite = new SQLiteConfig();
+        sqlite.setSynchronous(SQLiteConfig.SynchronousMode.NORMAL); // durable at checkpoints, safe under WAL
+        sqlite.setBusyTimeout(busyTimeout);
+        sqlite.setTempStore(SQLiteConfig.TempStore.MEMORY);
+        sqlite.setCacheSize(-16000); // 16 MB page cache per connection
+        return sqlite;
+    }
+
+    private SQLiteDataSource dataSource(SQLiteConfig sqlite) {
+        SQLiteDataSource dataSource = new SQLiteDataSource(sqlite);
+        dataSource.setUrl(url);
+        return dataSource;
+    }
+
+    // Rejects a writer outright when too many are already waiting for the
+    // single write connection
+    static class WriteQueueDataSource extends DelegatingDataSource {
+
+        private final Semaphore waiting;
+
+        WriteQueueDataSource(DataSource target, int capacity) {
+            super(target);
+            this.waiting = new Semaphore(capacity);
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            if (!waiting.tryAcquire())
+                throw new SQLTransientConnectionException("Write queue is full");
+            try {
+                return super.getConnection();
+            } finally {
+                waiting.release();
+            }
+        }
+    }
+}
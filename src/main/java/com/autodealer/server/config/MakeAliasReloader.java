@@ -0,0 +1,83 @@
+package com.autodealer.server.config;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.autodealer.server.Util.MakeAliasTable;
+import com.autodealer.server.Util.MakeNormalizer;
+
+import jakarta.annotation.PostConstruct;
+
+// Loads the make alias dictionary from makes.aliases.path when set (falling
+// back to the bundled file) and reloads it when the file changes, so a new
+// brand or misspelling goes live without a restart.
+@Component
+public class MakeAliasReloader {
+
+    @Value("${makes.aliases.path:}")
+    private String aliasesPath;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    private volatile long lastModified = -1;
+
+    @PostConstruct
+    public void init() throws IOException {
+        if (!aliasesPath.isBlank()) {
+            reload();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${makes.aliases.check-interval:30000}")
+    public void reloadIfChanged() {
+        if (aliasesPath.isBlank())
+            return;
+
+        try {
+            Path path = Paths.get(aliasesPath);
+            if (Files.exists(path) && Files.getLastModifiedTime(path).toMillis() != lastModified) {
+                reload();
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            System.err.println("Keeping current make aliases, reload failed: " + e.getMessage());
+        }
+    }
+
+    // Parses and installs the dictionary; the previous one stays active if
+    // parsing fails
+    public synchronized MakeAliasTable reload() throws IOException {
+        MakeAliasTable table;
+        if (aliasesPath.isBlank()) {
+            try (Reader reader = new InputStreamReader(
+                    MakeNormalizer.class.getResourceAsStream(MakeNormalizer.DEFAULT_ALIASES),
+                    StandardCharsets.UTF_8)) {
+                table = MakeAliasTable.parse(reader);
+            }
+        } else {
+            Path path = Paths.get(aliasesPath);
+            // Recorded before parsing so a broken file is reported once, not
+            // on every check, until it is edited again
+            lastModified = Files.getLastModifiedTime(path).toMillis();
+            try (Reader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+                table = MakeAliasTable.parse(reader);
+            }
+        }
+
+        MakeNormalizer.install(table);
+        eventPublisher.publishEvent(new MakeAliasesReloadedEvent(table));
+        System.out.println("Loaded " + table.size() + " make aliases" + (aliasesPath.isBlank() ? "" : " from " + aliasesPath));
+        return table;
+    }
+}
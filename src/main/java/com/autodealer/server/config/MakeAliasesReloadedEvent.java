@@ -0,0 +1,16 @@
+package com.autodealer.server.config;
+
+import com.autodealer.server.Util.MakeAliasTable;
+
+// Published after MakeNormalizer switches to a new alias dictionary
+public class MakeAliasesReloadedEvent {
+    private final MakeAliasTable aliases;
+
+    public MakeAliasesReloadedEvent(MakeAliasTable aliases) {
+        this.aliases = aliases;
+    }
+
+    public MakeAliasTable getAliases() {
+        return aliases;
+    }
+}
@@ -0,0 +1,160 @@
+package com.autodealer.server.config;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+
+// Applies the SQL scripts in db/migration (V<version>__<description>.sql) in
+// version order, each in its own transaction, and records them in
+// schema_version with a checksum. A script that was already applied is never
+// run again, and editing one afterwards stops startup instead of silently
+// drifting. Runs before JPA starts (see DataSourceConfig), which then only
+// validates the mapping against the result.
+@Component
+public class SchemaMigrator {
+
+    private static final String LOCATION = "classpath:db/migration/V*__*.sql";
+    private static final Pattern FILE_NAME = Pattern.compile("V(\\d+)__(.+)\\.sql");
+
+    @Autowired
+    private DataSource dataSource;
+
+    private record Migration(int version, String description, String sql, long checksum) {
+    }
+
+    @PostConstruct
+    public void migrate() throws IOException, SQLException {
+        TreeMap<Integer, Migration> migrations = load();
+
+        try (Connection connection = dataSource.getConnection()) {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("CREATE TABLE IF NOT EXISTS schema_version ("
+                        + "version INTEGER PRIMARY KEY, description TEXT NOT NULL, "
+                        + "checksum INTEGER NOT NULL, applied_at INTEGER NOT NULL)");
+            }
+
+            Map<Integer, Long> applied = applied(connection);
+            int count = 0;
+            for (Migration migration : migrations.values()) {
+                Long checksum = applied.get(migration.version());
+                if (checksum == null) {
+                    apply(connection, migration);
+                    count++;
+                } else if (checksum != migration.checksum()) {
+                    throw new IllegalStateException("Migration V" + migration.version()
+                            + " was changed after it was applied");
+                }
+            }
+            System.out.println("Schema at version " + (migrations.isEmpty() ? 0 : migrations.lastKey())
+                    + (count > 0 ? " (" + count + " migrations applied)" : ""));
+        }
+    }
+
+    private TreeMap<Integer, Migration> load() throws IOException {
+        TreeMap<Integer, Migration> migrations = new TreeMap<>();
+        for (Resource resource : new PathMatchingResourcePatternResolver().getResources(LOCATION)) {
+            Matcher name = FILE_NAME.matcher(resource.getFilename());
+            if (!name.matches())
+                throw new IllegalStateException("Bad migration file name: " + resource.getFilename());
+
+            String sql;
+            try (InputStream in = resource.getInputStream()) {
+                sql = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+            }
+            CRC32 crc = new CRC32();
+            crc.update(sql.getBytes(StandardCharsets.UTF_8));
+
+            int version = Integer.parseInt(name.group(1));
+            Migration previous = migrations.put(version,
+                    new Migration(version, name.group(2).replace('_', ' '), sql, crc.getValue()));
+            if (previous != null)
+                throw new IllegalStateException("Duplicate migration version " + version);
+        }
+        return migrations;
+    }
+
+    private static Map<Integer, Long> applied(Connection connection) throws SQLException {
+        Map<Integer, Long> applied = new HashMap<>();
+        try (Statement statement = connection.createStatement();
+                ResultSet rows = statement.executeQuery("SELECT version, checksum FROM schema_version")) {
+            while (rows.next()) {
+                applied.put(rows.getInt(1), rows.getLong(2));
+            }
+        }
+        return applied;
+    }
+
+    private static void apply(Connection connection, Migration migration) throws SQLException {
+        connection.setAutoCommit(false);
+        try {
+            try (Statement statement = connection.createStatement()) {
+                for (String sql : statements(migration.sql())) {
+                    statement.execute(sql);
+                }
+            }
+            try (PreparedStatement insert = connection.prepareStatement(
+                    "INSERT INTO schema_version (version, description, checksum, applied_at) VALUES (?, ?, ?, ?)")) {
+                insert.setInt(1, migration.version());
+                insert.setString(2, migration.description());
+                insert.setLong(3, migration.checksum());
+                insert.setLong(4, System.currentTimeMillis());
+                insert.executeUpdate();
+            }
+            connection.commit();
+            System.out.println("Applied migration V" + migration.version() + ": " + migration.description());
+        } catch (SQLException e) {
+            connection.rollback();
+            throw new SQLException("Migration V" + migration.version() + " failed: " + e.getMessage(), e);
+        } finally {
+            connection.setAutoCommit(true);
+        }
+    }
+
+    // Splits a script on ';' at the end of a line. Trigger bodies contain
+    // their own semicolons, so a CREATE TRIGGER runs until its END; line.
+    // Lines starting with -- are comments.
+    private static List<String> statements(String script) {
+        List<String> statements = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean trigger = false;
+        for (String line : script.split("\\R")) {
+            String trimmed = line.trim();
+            if (trimmed.isEmpty() || trimmed.startsWith("--"))
+                continue;
+            if (current.length() == 0)
+                trigger = trimmed.toUpperCase().startsWith("CREATE TRIGGER");
+            current.append(line).append('\n');
+
+            boolean end = trigger ? trimmed.equalsIgnoreCase("END;") : trimmed.endsWith(";");
+            if (end) {
+                statements.add(current.toString().trim());
+                current.setLength(0);
+            }
+        }
+        if (!current.toString().isBlank())
+            statements.add(current.toString().trim());
+        return statements;
+    }
+}
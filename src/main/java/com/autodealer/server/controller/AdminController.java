@@ -1,24 +1,25 @@
 package com.autodealer.server.controller;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.UUID;
+import java.util.Optional;
 
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.core.env.Environment;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.crypto.password.PasswordEncoder;
 // import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
@@ -28,14 +29,24 @@ import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.multipart.MultipartFile;
 
+import com.autodealer.server.Util.MakeAliasTable;
 import com.autodealer.server.Util.MakeNormalizer;
+import com.autodealer.server.config.MakeAliasReloader;
+import com.autodealer.server.entity.ImportReportDTO;
 import com.autodealer.server.entity.Vehicle;
+import com.autodealer.server.entity.VehicleBatchRequest;
+import com.autodealer.server.entity.VehiclePatch;
+import com.autodealer.server.images.HotImageCache;
+import com.autodealer.server.images.ImageJanitor;
+import com.autodealer.server.images.ImageProcessor;
+import com.autodealer.server.inventory.InventoryChangeEvent;
+import com.autodealer.server.inventory.InventoryIndex;
+import com.autodealer.server.inventory.VehicleBatchUpdater;
+import com.autodealer.server.inventory.VehicleImporter;
 import com.autodealer.server.repository.VehicleRepository;
 import com.autodealer.server.security.JwtUtil;
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
 
-import net.coobird.thumbnailator.Thumbnails;
+import jakarta.servlet.http.HttpServletRequest;
 
 @RestController
 @RequestMapping("/admin/api")
@@ -55,8 +66,29 @@ public class AdminController {
     @Autowired
     private VehicleRepository vehicleRepository;
 
-    @Value("${upload.path}")
-    private String uploadPath;
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private MakeAliasReloader makeAliasReloader;
+
+    @Autowired
+    private VehicleImporter vehicleImporter;
+
+    @Autowired
+    private VehicleBatchUpdater vehicleBatchUpdater;
+
+    @Autowired
+    private InventoryIndex inventoryIndex;
+
+    @Autowired
+    private ImageJanitor imageJanitor;
+
+    @Autowired
+    private ImageProcessor imageProcessor;
+
+    @Autowired
+    private HotImageCache hotImageCache;
 
     // Login endpoint
     @PostMapping("/login")
@@ -82,6 +114,18 @@ public class AdminController {
         return ResponseEntity.status(401).body(Map.of("error", "Invalid password"));
     }
 
+    // Re-read the make alias dictionary without a restart
+    @PostMapping("/makes/reload")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> reloadMakeAliases() {
+        try {
+            MakeAliasTable table = makeAliasReloader.reload();
+            return ResponseEntity.ok(Map.of("aliases", table.size()));
+        } catch (IOException | IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
     @PostMapping("/vehicles")
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<Vehicle> createVehicle(@RequestBody Vehicle vehicle) {
@@ -89,9 +133,39 @@ public class AdminController {
         vehicle.setModel(MakeNormalizer.capitalizeWords(vehicle.getModel()));
 
         Vehicle saved = vehicleRepository.save(vehicle);
+        eventPublisher.publishEvent(InventoryChangeEvent.upserted(saved));
         return ResponseEntity.ok(saved);
     }
 
+    // Bulk load a dealer feed: CSV with a header row, or NDJSON. The body is
+    // read as it arrives; the format comes from ?format= or the Content-Type
+    @PostMapping("/vehicles/import")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> importVehicles(HttpServletRequest request,
+            @RequestParam(required = false) String format) {
+        String type = format != null ? format.toLowerCase() : String.valueOf(request.getContentType()).toLowerCase();
+        boolean csv = type.contains("csv");
+        if (!csv && !type.contains("json")) {
+            return ResponseEntity.status(415).body(Map.of("error", "Send text/csv or application/x-ndjson"));
+        }
+
+        // The container closes the body; only opening it can fail before
+        // anything is stored
+        Reader reader;
+        try {
+            reader = new InputStreamReader(request.getInputStream(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+
+        // Rows are committed in chunks as they are read, so a feed that
+        // breaks part way still gets the report of what was stored
+        ImportReportDTO report = csv ? vehicleImporter.importCsv(reader) : vehicleImporter.importNdJson(reader);
+        System.out.println("Imported " + report.getImported() + " vehicles, " + report.getFailed() + " rows rejected"
+                + (report.isComplete() ? "" : ", stopped at line " + report.getFatalError().getRow()));
+        return ResponseEntity.status(report.isComplete() ? 200 : 422).body(report);
+    }
+
     @PutMapping("/vehicles/{id}")
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<Vehicle> updateVehicle(@PathVariable Long id, @RequestBody Vehicle vehicleDetails) {
@@ -107,95 +181,112 @@ public class AdminController {
                     vehicle.setDetailsJson(vehicleDetails.getDetailsJson());
 
                     Vehicle updated = vehicleRepository.save(vehicle);
+                    eventPublisher.publishEvent(InventoryChangeEvent.upserted(updated));
                     return ResponseEntity.ok(updated);
                 })
                 .orElse(ResponseEntity.notFound().build());
     }
 
+    // Partial update: only the fields in the body are written, in one UPDATE
+    // that also checks the version the client last saw. A stale version gets
+    // 409 with the current one instead of overwriting someone else's edit.
+    @PatchMapping("/vehicles/{id}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> patchVehicle(@PathVariable Long id, @RequestBody VehiclePatch patch) {
+        String error = patch.validate();
+        if (error != null) {
+            return ResponseEntity.badRequest().body(Map.of("error", error));
+        }
+
+        Map<String, Object> changes = patch.getChanges();
+        changes.computeIfPresent("make", (field, make) -> MakeNormalizer.normalize((String) make));
+        changes.computeIfPresent("model", (field, model) -> MakeNormalizer.capitalizeWords((String) model));
+
+        Optional<Vehicle> patched = vehicleRepository.patch(id, patch.getVersion(), changes);
+        if (patched.isPresent()) {
+            eventPublisher.publishEvent(InventoryChangeEvent.upserted(patched.get()));
+            return ResponseEntity.ok(patched.get());
+        }
+
+        return vehicleRepository.findVersionById(id)
+                .<ResponseEntity<?>>map(current -> ResponseEntity.status(409).body(Map.of(
+                        "error", "Vehicle was changed by someone else", "version", current)))
+                .orElse(ResponseEntity.notFound().build());
+    }
+
     @DeleteMapping("/vehicles/{id}")
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<?> deleteVehicle(@PathVariable Long id) {
         return vehicleRepository.findById(id)
                 .map(vehicle -> {
-                    try {
-                        ObjectMapper objectMapper = new ObjectMapper();
-                        JsonNode detailsNode = objectMapper.readTree(vehicle.getDetailsJson());
-
-                        if (detailsNode.has("images") && detailsNode.get("images").isArray()) {
-                            for (JsonNode imageNode : detailsNode.get("images")) {
-                                String filename = imageNode.asText();
-                                Path filePath = Paths.get(uploadPath).resolve(filename).normalize();
-                                try {
-                                    Files.deleteIfExists(filePath);
-                                } catch (IOException e) {
-                                    System.err.println("Failed to delete image " + filename + ": " + e.getMessage());
-                                }
-                            }
-                        }
-                    } catch (Exception e) {
-                        System.err.println("Error parsing detailsJson for vehicle ID " + id + ": " + e.getMessage());
-                    }
-
+                    List<String> images = vehicleRepository.findImageFilenames(id);
                     vehicleRepository.delete(vehicle);
+                    eventPublisher.publishEvent(InventoryChangeEvent.deleted(id));
+                    imageJanitor.deleteLater(images);
                     return ResponseEntity.ok(Map.of("message", "Vehicle and associated images deleted successfully"));
                 })
                 .orElse(ResponseEntity.notFound().build());
     }
 
-    @PostMapping("/vehicles/images/upload")
+    // Change or delete many vehicles (by ids or by filter) in one transaction.
+    // Responds with the affected ids and the inventory version that includes
+    // the change.
+    @PostMapping("/vehicles/batch")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<List<String>> uploadImages(@RequestParam("files") MultipartFile[] files) {
+    public ResponseEntity<?> batchUpdate(@RequestBody VehicleBatchRequest request) {
+        VehicleBatchUpdater.Result result;
+        try {
+            result = vehicleBatchUpdater.apply(request);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
 
-        List<String> fileNames = new ArrayList<>();
+        imageJanitor.deleteLater(result.deletedImages());
+        return ResponseEntity.ok(Map.of("ids", result.ids(), "version", inventoryIndex.getVersion()));
+    }
 
+    // Files are resized in parallel; the names come back in upload order. A
+    // file that cannot be processed is left out rather than failing the rest,
+    // and Server-Timing carries each file's processing time (marking files
+    // that matched an image already stored).
+    @PostMapping("/vehicles/images/upload")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> uploadImages(@RequestParam("files") MultipartFile[] files) {
+        List<ImageProcessor.Result> results;
         try {
-            Path uploadDir = Paths.get(uploadPath);
-            if (!Files.exists(uploadDir)) {
-                Files.createDirectories(uploadDir);
-            }
-
-            for (MultipartFile file : files) {
-                if (file.isEmpty())
-                    continue;
-
-                // Generate unique filename
-                String originalFilename = file.getOriginalFilename();
-                String extension = originalFilename != null && originalFilename.contains(".")
-                        ? originalFilename.substring(originalFilename.lastIndexOf("."))
-                        : "";
-                String filename = UUID.randomUUID().toString() + extension;
-
-                Path targetLocation = uploadDir.resolve(filename);
-
-                // Resize image before saving
-                ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
-                Thumbnails.of(file.getInputStream())
-                        .size(600, 600) // Max 1200px on longest side
-                        .keepAspectRatio(true) // Explicitly maintain ratio
-                        .outputQuality(0.60) // Drop the quality by 70%
-                        .toOutputStream(outputStream);
-
-                // Save resized image
-                Files.write(targetLocation, outputStream.toByteArray());
-
-                fileNames.add(filename);
-            }
-
-            return ResponseEntity.ok(fileNames);
+            results = imageProcessor.process(files);
         } catch (IOException e) {
             return ResponseEntity.internalServerError().build();
         }
+
+        List<String> fileNames = new ArrayList<>();
+        List<String> timings = new ArrayList<>();
+        for (int i = 0; i < results.size(); i++) {
+            ImageProcessor.Result result = results.get(i);
+            if (result.ok())
+                fileNames.add(result.filename());
+            String desc = !result.ok() ? ";desc=\"failed\"" : result.deduplicated() ? ";desc=\"dedup\"" : "";
+            timings.add("img" + i + ";dur=" + result.millis() + desc);
+        }
+
+        if (fileNames.isEmpty() && !results.isEmpty())
+            return ResponseEntity.badRequest().body(Map.of("error", "No image could be processed: " + results.get(0).error()));
+        return ResponseEntity.ok()
+                .header("Server-Timing", String.join(", ", timings))
+                .body(fileNames);
+    }
+
+    // Hit rate and fill of the in-memory image cache
+    @GetMapping("/images/cache/stats")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<HotImageCache.Stats> getImageCacheStats() {
+        return ResponseEntity.ok(hotImageCache.stats());
     }
 
     @DeleteMapping("/vehicles/images/{filename}")
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<?> deleteImage(@PathVariable String filename) {
-        try {
-            Path filePath = Paths.get(uploadPath).resolve(filename).normalize();
-            Files.deleteIfExists(filePath);
-            return ResponseEntity.ok().build();
-        } catch (IOException e) {
-            return ResponseEntity.internalServerError().build();
-        }
+        imageJanitor.deleteLater(List.of(filename));
+        return ResponseEntity.ok().build();
     }
 }
\ No newline at end of file
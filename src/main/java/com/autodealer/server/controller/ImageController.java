@@ -1,23 +1,28 @@
 package com.autodealer.server.controller;
 
-import java.nio.file.Files;
+import java.io.IOException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.util.concurrent.TimeUnit;
+import java.util.Map;
 
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.core.io.Resource;
-import org.springframework.core.io.UrlResource;
-import org.springframework.http.CacheControl;
-import org.springframework.http.HttpHeaders;
-import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 // import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.autodealer.server.images.DerivativeCache;
+import com.autodealer.server.images.ImageFileServer;
+import com.autodealer.server.images.ImageProcessor;
+import com.autodealer.server.images.ImageRendition;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
 @RestController
 @RequestMapping("/api/vehicles/images")
 // @CrossOrigin(origins = "http://localhost:5173") // not needed: springboot
@@ -27,29 +32,48 @@ public class ImageController {
     @Value("${upload.path}")
     private String uploadPath;
 
-    // Public endpoint - Serve image
+    @Autowired
+    private DerivativeCache derivativeCache;
+
+    @Autowired
+    private ImageFileServer imageFileServer;
+
+    // Public endpoint - Serve image. ?size=thumb|card|full picks a rendition
+    // (full by default); when it is missing the nearest stored one is served.
+    // ?w= (and optionally ?q=) asks for a whitelisted width and quality
+    // instead, resized on first request and cached. Files are served with
+    // validators and byte ranges, see ImageFileServer.
     @GetMapping("/{filename}")
-    public ResponseEntity<Resource> getImage(@PathVariable String filename) {
+    public ResponseEntity<?> getImage(@PathVariable String filename,
+            @RequestParam(defaultValue = "full") String size,
+            @RequestParam(required = false) Integer w,
+            @RequestParam(defaultValue = "70") int q,
+            HttpServletRequest request, HttpServletResponse response) {
+        // Renditions still being written share the directory
+        if (ImageProcessor.isTempFile(filename))
+            return ResponseEntity.notFound().build();
+        ImageRendition requested = ImageRendition.parse(size);
+        if (requested == null)
+            return ResponseEntity.badRequest().build();
+        if (w != null && !derivativeCache.isAllowed(w, q))
+            return ResponseEntity.badRequest().body(Map.of("error", "Unsupported size: " + derivativeCache.describeAllowed()));
+
         try {
-            Path filePath = Paths.get(uploadPath).resolve(filename).normalize();
-            Resource resource = new UrlResource(filePath.toUri());
-
-            if (resource.exists()) {
-                String contentType = Files.probeContentType(filePath);
-                if (contentType == null) {
-                    contentType = "application/octet-stream";
-                }
-
-                return ResponseEntity.ok()
-                        .cacheControl(CacheControl.maxAge(7, TimeUnit.DAYS).cachePublic())
-                        .contentType(MediaType.parseMediaType(contentType))
-                        .header(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"" + resource.getFilename() + "\"")
-                        .body(resource);
-            } else {
+            if (w != null) {
+                Path derivative = derivativeCache.get(filename, w, q);
+                if (derivative != null && imageFileServer.serve(derivative, request, response))
+                    return null; // written to the response
                 return ResponseEntity.notFound().build();
             }
-        } catch (Exception e) {
+            for (ImageRendition rendition : requested.fallbacks()) {
+                Path candidate = Paths.get(uploadPath).resolve(rendition.fileName(filename)).normalize();
+                if (imageFileServer.serve(candidate, request, response))
+                    return null; // written to the response
+            }
             return ResponseEntity.notFound().build();
+        } catch (IOException e) {
+            // Usually the client went away mid-file
+            return response.isCommitted() ? null : ResponseEntity.notFound().build();
         }
     }
 }
\ No newline at end of file
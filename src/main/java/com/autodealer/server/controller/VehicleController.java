@@ -3,21 +3,33 @@ package com.autodealer.server.controller;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.PageRequest;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 // import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import com.autodealer.server.entity.SearchResultDTO;
 import com.autodealer.server.entity.Vehicle;
-import com.autodealer.server.repository.VehicleRepository;
+import com.autodealer.server.entity.VehicleCursor;
+import com.autodealer.server.entity.VehicleFilter;
+import com.autodealer.server.entity.VehiclePageDTO;
+import com.autodealer.server.entity.VehicleSort;
+import com.autodealer.server.inventory.InventoryChangeFeed;
+import com.autodealer.server.inventory.InventoryIndex;
+import com.autodealer.server.inventory.SearchIndex;
+import com.autodealer.server.inventory.VehicleJsonCache;
+import com.autodealer.server.repository.VehicleFullTextRepository;
 
 @RestController
 @RequestMapping("/api/vehicles")
@@ -25,48 +37,196 @@ import com.autodealer.server.repository.VehicleRepository;
 // not needed: springboot serving static files via Docker
 public class VehicleController {
 
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final int MAX_SEARCH_RESULTS = 50;
+
+    @Autowired
+    private InventoryIndex inventoryIndex;
+
+    @Autowired
+    private VehicleJsonCache jsonCache;
+
+    @Autowired
+    private SearchIndex searchIndex;
+
+    @Autowired
+    private VehicleFullTextRepository fullTextRepository;
+
     @Autowired
-    private VehicleRepository vehicleRepository;
+    private InventoryChangeFeed inventoryChangeFeed;
 
+    // Every public response is a function of the inventory (or of one
+    // vehicle), so its version is a strong validator. The ETag is taken before
+    // the data is read: if a write slips in between, the client just gets a
+    // fresh 200 on its next revalidation.
+    // Vehicle JSON is assembled from pre-serialized fragments and returned as
+    // bytes, so Jackson does not run per request. view=card drops
+    // detailsJson and returns just the grid columns plus the thumbnail.
     @GetMapping
-    public List<Vehicle> getAllVehicles() {
-        return vehicleRepository.findAll();
+    public ResponseEntity<byte[]> getAllVehicles(@RequestParam(defaultValue = "full") String view,
+            WebRequest request) {
+        String etag = inventoryEtag();
+        if (request.checkNotModified(etag)) {
+            return notModified(etag);
+        }
+        return json(etag, jsonCache.array(inventoryIndex.findAll(), isCardView(view)));
+    }
+
+    // Filtered, sorted listing with keyset pagination on (sortKey, id)
+    @GetMapping("/query")
+    public ResponseEntity<?> queryVehicles(VehicleFilter filter,
+            @RequestParam(required = false) String sort,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "24") int limit,
+            @RequestParam(defaultValue = "full") String view,
+            WebRequest request) {
+        String etag = inventoryEtag();
+        if (request.checkNotModified(etag)) {
+            return notModified(etag);
+        }
+
+        VehicleSort order;
+        VehicleCursor after = null;
+        try {
+            order = VehicleSort.fromParam(sort);
+            if (cursor != null && !cursor.isBlank()) {
+                after = VehicleCursor.decode(cursor, order);
+            }
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+
+        // Fetch one extra row to know whether another page exists
+        List<Vehicle> rows = inventoryIndex.query(filter, order, after, pageSize + 1);
+
+        String nextCursor = null;
+        if (rows.size() > pageSize) {
+            rows = rows.subList(0, pageSize);
+            nextCursor = VehicleCursor.of(rows.get(pageSize - 1), order).encode();
+        }
+
+        return json(etag, jsonCache.page(new VehiclePageDTO<>(rows, nextCursor), isCardView(view)));
+    }
+
+    // Make/model/condition/status counts and price/year/mileage histograms
+    @GetMapping("/facets")
+    public ResponseEntity<?> getFacets(VehicleFilter filter,
+            @RequestParam(defaultValue = "10000") double priceBucket,
+            @RequestParam(defaultValue = "5") double yearBucket,
+            @RequestParam(defaultValue = "25000") double mileageBucket,
+            WebRequest request) {
+        if (!isPositive(priceBucket) || !isPositive(yearBucket) || !isPositive(mileageBucket)) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Bucket widths must be positive numbers"));
+        }
+
+        String etag = inventoryEtag();
+        if (request.checkNotModified(etag)) {
+            return notModified(etag);
+        }
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache())
+                .eTag(etag)
+                .body(inventoryIndex.facets(filter, priceBucket, yearBucket, mileageBucket));
+    }
+
+    // Live inventory changes as Server-Sent Events. EventSource resends the
+    // last event id on reconnect; ?cursor= starts from a stored seq instead
+    // (0 replays the whole log). Without either, only new changes are sent.
+    @GetMapping(value = "/changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamChanges(@RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId,
+            @RequestParam(required = false) Long cursor) {
+        return inventoryChangeFeed.subscribe(lastEventId != null ? lastEventId : cursor);
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<Vehicle> getVehicleById(@PathVariable Long id) {
-        Optional<Vehicle> vehicle = vehicleRepository.findById(id);
+    public ResponseEntity<byte[]> getVehicleById(@PathVariable Long id, WebRequest request) {
+        long version = inventoryIndex.getVersion(id);
+        if (version < 0) {
+            return ResponseEntity.notFound().build();
+        }
+
+        String etag = "\"v" + id + "-" + version + "\"";
+        if (request.checkNotModified(etag)) {
+            return notModified(etag);
+        }
+
+        Optional<Vehicle> vehicle = inventoryIndex.findById(id);
 
         if (vehicle.isPresent()) {
-            return ResponseEntity.ok(vehicle.get());
+            return json(etag, jsonCache.get(vehicle.get()));
         } else {
             return ResponseEntity.notFound().build();
         }
     }
 
+    // Autocomplete: brands first, then vehicles, answered from memory
     @GetMapping("/search")
-    public List<SearchResultDTO> searchVehicles(@RequestParam String q,
-            @RequestParam(defaultValue = "10") int limit) {
-        PageRequest pageable = PageRequest.of(0, limit);
-
-        // 1. Fetch vehicles matching the query
-        List<Vehicle> vehicles = vehicleRepository.searchVehicles(q, pageable);
-        List<SearchResultDTO> results = vehicles.stream()
-                .map(v -> new SearchResultDTO("vehicle", v))
-                .collect(Collectors.toList());
-
-        // 2. Fetch all distinct makes and filter by query
-        List<String> allMakes = vehicleRepository.findAllDistinctMakes();
-        List<String> matchingMakes = allMakes.stream()
-                .filter(make -> make.toLowerCase().contains(q.toLowerCase()))
-                .collect(Collectors.toList());
-
-        // 3. Add brand results to the same list
-        for (String make : matchingMakes) {
-            results.add(new SearchResultDTO("brand", Map.of("make", make)));
+    public ResponseEntity<List<SearchResultDTO>> searchVehicles(@RequestParam String q,
+            @RequestParam(defaultValue = "10") int limit,
+            WebRequest request) {
+        // Corrections depend on the alias dictionary as well as the inventory
+        String etag = "\"inv-" + inventoryIndex.getVersion() + "-a" + searchIndex.getAliasGeneration() + "\"";
+        if (request.checkNotModified(etag)) {
+            return notModified(etag);
         }
 
-        return results;
+        int maxResults = Math.max(1, Math.min(limit, MAX_SEARCH_RESULTS));
+        List<SearchResultDTO> results = searchIndex.search(q, maxResults);
+
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache())
+                .eTag(etag)
+                .body(results);
+    }
+
+    private static boolean isCardView(String view) {
+        return "card".equalsIgnoreCase(view);
+    }
+
+    // NaN and infinite widths would make empty or endless histograms
+    private static boolean isPositive(double width) {
+        return Double.isFinite(width) && width > 0;
+    }
+
+    // Database-side alternative: FTS5 over make, model, year and details,
+    // relevance ordered
+    @GetMapping("/search/fulltext")
+    public ResponseEntity<List<Vehicle>> searchFullText(@RequestParam String q,
+            @RequestParam(defaultValue = "10") int limit,
+            WebRequest request) {
+        String etag = inventoryEtag();
+        if (request.checkNotModified(etag)) {
+            return notModified(etag);
+        }
+
+        int maxResults = Math.max(1, Math.min(limit, MAX_SEARCH_RESULTS));
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache())
+                .eTag(etag)
+                .body(fullTextRepository.search(q, maxResults));
+    }
+
+    // Pre-serialized JSON from the fragment cache
+    private static ResponseEntity<byte[]> json(String etag, byte[] body) {
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache())
+                .eTag(etag)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(body);
+    }
+
+    // checkNotModified has already matched the request's validators
+    private static <T> ResponseEntity<T> notModified(String etag) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                .cacheControl(CacheControl.noCache())
+                .eTag(etag)
+                .build();
+    }
+
+    private String inventoryEtag() {
+        return "\"inv-" + inventoryIndex.getVersion() + "\"";
     }
 
 }
@@ -0,0 +1,73 @@
+package com.autodealer.server.entity;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class ImportReportDTO {
+    private int imported;
+    private int failed;
+    private List<RowError> errors = new ArrayList<>(); // first MAX_ERRORS failures only
+    private boolean errorsTruncated;
+    private RowError fatalError; // where the feed broke off, if it did
+
+    public static final int MAX_ERRORS = 1000;
+
+    public static class RowError {
+        private long row; // line of the feed the row starts on
+        private String error;
+
+        public RowError(long row, String error) {
+            this.row = row;
+            this.error = error;
+        }
+
+        public long getRow() {
+            return row;
+        }
+
+        public String getError() {
+            return error;
+        }
+    }
+
+    public void addImported(int count) {
+        imported += count;
+    }
+
+    public void addError(long row, String error) {
+        failed++;
+        if (errors.size() < MAX_ERRORS)
+            errors.add(new RowError(row, error));
+        else
+            errorsTruncated = true;
+    }
+
+    // Nothing after this line was read
+    public void stop(long row, String error) {
+        fatalError = new RowError(row, error);
+    }
+
+    public boolean isComplete() {
+        return fatalError == null;
+    }
+
+    public int getImported() {
+        return imported;
+    }
+
+    public int getFailed() {
+        return failed;
+    }
+
+    public List<RowError> getErrors() {
+        return errors;
+    }
+
+    public boolean isErrorsTruncated() {
+        return errorsTruncated;
+    }
+
+    public RowError getFatalError() {
+        return fatalError;
+    }
+}
@@ -0,0 +1,9 @@
+package com.autodealer.server.entity;
+
+// One row of the inventory_changes log
+public record InventoryChange(
+        long seq,
+        long vehicleId,
+        String kind, // created, updated or deleted
+        long changedAt) {
+}
@@ -4,7 +4,9 @@ import java.time.LocalDateTime;
 import java.time.OffsetDateTime;
 
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.Generated;
 import org.hibernate.annotations.UpdateTimestamp;
+import org.hibernate.generator.EventType;
 
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
@@ -12,12 +14,14 @@ import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 
 @Entity
 @Table(name = "vehicles")
 public class Vehicle {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(columnDefinition = "integer") // SQLite rowid alias, see V1 migration
     private Long id;
 
     @Column(nullable = false)
@@ -44,6 +48,26 @@ public class Vehicle {
     @Column(columnDefinition = "TEXT")
     private String detailsJson; // Store all car details as JSON
 
+    // Generated by SQLite from detailsJson (V4 migration), read back after each write
+    @Generated(event = { EventType.INSERT, EventType.UPDATE })
+    @Column(insertable = false, updatable = false)
+    private String thumbnail;
+
+    @Generated(event = { EventType.INSERT, EventType.UPDATE })
+    @Column(insertable = false, updatable = false)
+    private String transmission;
+
+    @Generated(event = { EventType.INSERT, EventType.UPDATE })
+    @Column(insertable = false, updatable = false)
+    private String fuelType;
+
+    @Generated(event = { EventType.INSERT, EventType.UPDATE })
+    @Column(insertable = false, updatable = false)
+    private String bodyStyle;
+
+    @Version
+    private Integer version; // bumped on every update, see PATCH /admin/api/vehicles/{id}
+
     @CreationTimestamp
     private OffsetDateTime createdAt;
 
@@ -87,6 +111,26 @@ public class Vehicle {
         return detailsJson;
     }
 
+    public String getThumbnail() {
+        return thumbnail;
+    }
+
+    public String getTransmission() {
+        return transmission;
+    }
+
+    public String getFuelType() {
+        return fuelType;
+    }
+
+    public String getBodyStyle() {
+        return bodyStyle;
+    }
+
+    public Integer getVersion() {
+        return version;
+    }
+
     public OffsetDateTime getCreatedAt() {
         return createdAt;
     }
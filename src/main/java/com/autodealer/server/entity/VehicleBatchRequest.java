@@ -0,0 +1,63 @@
+package com.autodealer.server.entity;
+
+import java.util.List;
+
+// One change applied to many vehicles: the targets are either explicit ids or
+// everything matching a filter. Either delete them, or set any of status,
+// price (absolute) and priceChangePercent (e.g. -5 for a 5% drop).
+public class VehicleBatchRequest {
+    private List<Long> ids;
+    private VehicleFilter filter;
+    private String status;
+    private Double price;
+    private Double priceChangePercent;
+    private boolean delete;
+
+    public List<Long> getIds() {
+        return ids;
+    }
+
+    public VehicleFilter getFilter() {
+        return filter;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public Double getPrice() {
+        return price;
+    }
+
+    public Double getPriceChangePercent() {
+        return priceChangePercent;
+    }
+
+    public boolean isDelete() {
+        return delete;
+    }
+
+    public void setIds(List<Long> ids) {
+        this.ids = ids;
+    }
+
+    public void setFilter(VehicleFilter filter) {
+        this.filter = filter;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public void setPrice(Double price) {
+        this.price = price;
+    }
+
+    public void setPriceChangePercent(Double priceChangePercent) {
+        this.priceChangePercent = priceChangePercent;
+    }
+
+    public void setDelete(boolean delete) {
+        this.delete = delete;
+    }
+}
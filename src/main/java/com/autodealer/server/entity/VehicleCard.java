@@ -0,0 +1,23 @@
+package com.autodealer.server.entity;
+
+import java.time.OffsetDateTime;
+
+// What a grid card needs: the list columns plus the thumbnail. The full details are loaded through /api/vehicles/{id}.
+public record VehicleCard(
+        Long id,
+        String make,
+        String model,
+        Integer year,
+        Double price,
+        Integer mileage,
+        String status,
+        String condition,
+        String thumbnail,
+        OffsetDateTime createdAt) {
+
+    public static VehicleCard of(Vehicle vehicle) {
+        return new VehicleCard(vehicle.getId(), vehicle.getMake(), vehicle.getModel(), vehicle.getYear(),
+                vehicle.getPrice(), vehicle.getMileage(), vehicle.getStatus(), vehicle.getCondition(),
+                vehicle.getThumbnail(), vehicle.getCreatedAt());
+    }
+}
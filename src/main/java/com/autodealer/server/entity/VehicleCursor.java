@@ -0,0 +1,57 @@
+package com.autodealer.server.entity;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+// Opaque keyset cursor: the sort key and id of the last row on a page.
+// The next page starts strictly after that (key, id) pair.
+public class VehicleCursor {
+    private final Number key;
+    private final long id;
+
+    public VehicleCursor(Number key, long id) {
+        this.key = key;
+        this.id = id;
+    }
+
+    public static VehicleCursor of(Vehicle vehicle, VehicleSort sort) {
+        Number key = switch (sort.getProperty()) {
+            case "year" -> vehicle.getYear();
+            case "price" -> vehicle.getPrice();
+            case "mileage" -> vehicle.getMileage();
+            default -> vehicle.getId();
+        };
+        return new VehicleCursor(key, vehicle.getId());
+    }
+
+    public String encode() {
+        String raw = key + ":" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static VehicleCursor decode(String cursor, VehicleSort sort) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf(':');
+            String keyPart = raw.substring(0, separator);
+            long id = Long.parseLong(raw.substring(separator + 1));
+
+            Number key = switch (sort.getProperty()) {
+                case "year", "mileage" -> Integer.parseInt(keyPart);
+                case "price" -> Double.parseDouble(keyPart);
+                default -> Long.parseLong(keyPart);
+            };
+            return new VehicleCursor(key, id);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+
+    public Number getKey() {
+        return key;
+    }
+
+    public long getId() {
+        return id;
+    }
+}
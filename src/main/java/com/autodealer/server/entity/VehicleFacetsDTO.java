@@ -0,0 +1,122 @@
+package com.autodealer.server.entity;
+
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+public class VehicleFacetsDTO {
+    private int total; // vehicles matching the full filter
+    private List<FacetCount> makes; // each make carries its models
+    private List<FacetCount> conditions;
+    private List<FacetCount> statuses;
+    private List<HistogramBucket> price;
+    private List<HistogramBucket> year;
+    private List<HistogramBucket> mileage;
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public static class FacetCount {
+        private String value;
+        private int count;
+        private List<FacetCount> children; // models within a make, null otherwise
+
+        public FacetCount(String value, int count, List<FacetCount> children) {
+            this.value = value;
+            this.count = count;
+            this.children = children;
+        }
+
+        public String getValue() {
+            return value;
+        }
+
+        public int getCount() {
+            return count;
+        }
+
+        public List<FacetCount> getChildren() {
+            return children;
+        }
+    }
+
+    public static class HistogramBucket {
+        private double from; // inclusive
+        private double to; // exclusive
+        private int count;
+
+        public HistogramBucket(double from, double to, int count) {
+            this.from = from;
+            this.to = to;
+            this.count = count;
+        }
+
+        public double getFrom() {
+            return from;
+        }
+
+        public double getTo() {
+            return to;
+        }
+
+        public int getCount() {
+            return count;
+        }
+    }
+
+    // Getters
+    public int getTotal() {
+        return total;
+    }
+
+    public List<FacetCount> getMakes() {
+        return makes;
+    }
+
+    public List<FacetCount> getConditions() {
+        return conditions;
+    }
+
+    public List<FacetCount> getStatuses() {
+        return statuses;
+    }
+
+    public List<HistogramBucket> getPrice() {
+        return price;
+    }
+
+    public List<HistogramBucket> getYear() {
+        return year;
+    }
+
+    public List<HistogramBucket> getMileage() {
+        return mileage;
+    }
+
+    // Setters
+    public void setTotal(int total) {
+        this.total = total;
+    }
+
+    public void setMakes(List<FacetCount> makes) {
+        this.makes = makes;
+    }
+
+    public void setConditions(List<FacetCount> conditions) {
+        this.conditions = conditions;
+    }
+
+    public void setStatuses(List<FacetCount> statuses) {
+        this.statuses = statuses;
+    }
+
+    public void setPrice(List<HistogramBucket> price) {
+        this.price = price;
+    }
+
+    public void setYear(List<HistogramBucket> year) {
+        this.year = year;
+    }
+
+    public void setMileage(List<HistogramBucket> mileage) {
+        this.mileage = mileage;
+    }
+}
@@ -0,0 +1,149 @@
+package com.autodealer.server.entity;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonAnySetter;
+
+// Query-string filters for /api/vehicles/query. Every field is optional;
+// Spring binds them straight from the request parameters. In a JSON body
+// (batch changes) unknown keys are recorded rather than dropped, so a typo
+// does not silently widen the filter.
+public class VehicleFilter {
+    private String make;
+    private String model;
+    private String condition;
+    private String status;
+    private Double minPrice;
+    private Double maxPrice;
+    private Integer minYear;
+    private Integer maxYear;
+    private Integer minMileage;
+    private Integer maxMileage;
+    private final List<String> unknownFields = new ArrayList<>();
+
+    // Same normalization the Explore page applies before comparing conditions
+    public static String normalizeCondition(String condition) {
+        if (condition == null)
+            return null;
+        return condition.trim().toLowerCase().replaceAll("[\\s\\-_]+", " ");
+    }
+
+    public VehicleFilter copy() {
+        VehicleFilter copy = new VehicleFilter();
+        copy.make = make;
+        copy.model = model;
+        copy.condition = condition;
+        copy.status = status;
+        copy.minPrice = minPrice;
+        copy.maxPrice = maxPrice;
+        copy.minYear = minYear;
+        copy.maxYear = maxYear;
+        copy.minMileage = minMileage;
+        copy.maxMileage = maxMileage;
+        return copy;
+    }
+
+    public boolean isEmpty() {
+        return isBlank(make) && isBlank(model) && isBlank(condition) && isBlank(status)
+                && minPrice == null && maxPrice == null
+                && minYear == null && maxYear == null
+                && minMileage == null && maxMileage == null;
+    }
+
+    // Keys of a JSON body that name no filter field
+    public List<String> unknownFields() {
+        return unknownFields;
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+
+    // Getters
+    public String getMake() {
+        return make;
+    }
+
+    public String getModel() {
+        return model;
+    }
+
+    public String getCondition() {
+        return condition;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public Double getMinPrice() {
+        return minPrice;
+    }
+
+    public Double getMaxPrice() {
+        return maxPrice;
+    }
+
+    public Integer getMinYear() {
+        return minYear;
+    }
+
+    public Integer getMaxYear() {
+        return maxYear;
+    }
+
+    public Integer getMinMileage() {
+        return minMileage;
+    }
+
+    public Integer getMaxMileage() {
+        return maxMileage;
+    }
+
+    // Setters
+    public void setMake(String make) {
+        this.make = make;
+    }
+
+    public void setModel(String model) {
+        this.model = model;
+    }
+
+    public void setCondition(String condition) {
+        this.condition = condition;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public void setMinPrice(Double minPrice) {
+        this.minPrice = minPrice;
+    }
+
+    public void setMaxPrice(Double maxPrice) {
+        this.maxPrice = maxPrice;
+    }
+
+    public void setMinYear(Integer minYear) {
+        this.minYear = minYear;
+    }
+
+    public void setMaxYear(Integer maxYear) {
+        this.maxYear = maxYear;
+    }
+
+    public void setMinMileage(Integer minMileage) {
+        this.minMileage = minMileage;
+    }
+
+    public void setMaxMileage(Integer maxMileage) {
+        this.maxMileage = maxMileage;
+    }
+
+    @JsonAnySetter
+    public void setUnknown(String name, Object value) {
+        unknownFields.add(name);
+    }
+}
@@ -0,0 +1,82 @@
+package com.autodealer.server.entity;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.fasterxml.jackson.annotation.JsonAnySetter;
+
+// Body of PATCH /admin/api/vehicles/{id}: the version the client last saw and
+// only the fields it wants to change. Each setter records its field, so
+// "absent" and "present" are told apart without a wrapper per field.
+public class VehiclePatch {
+    private Integer version;
+    private final Map<String, Object> changes = new LinkedHashMap<>(); // entity field -> new value
+    private final List<String> unknownFields = new ArrayList<>();
+
+    // Problem with the request, or null if it can be applied
+    public String validate() {
+        if (version == null)
+            return "version is required";
+        if (!unknownFields.isEmpty())
+            return "Cannot patch: " + String.join(", ", unknownFields);
+        if (changes.isEmpty())
+            return "Nothing to change";
+        for (Map.Entry<String, Object> change : changes.entrySet()) {
+            if (change.getValue() == null && !change.getKey().equals("detailsJson"))
+                return change.getKey() + " must not be null";
+        }
+        return null;
+    }
+
+    public Integer getVersion() {
+        return version;
+    }
+
+    public Map<String, Object> getChanges() {
+        return changes;
+    }
+
+    public void setVersion(Integer version) {
+        this.version = version;
+    }
+
+    public void setMake(String make) {
+        changes.put("make", make);
+    }
+
+    public void setModel(String model) {
+        changes.put("model", model);
+    }
+
+    public void setYear(Integer year) {
+        changes.put("year", year);
+    }
+
+    public void setPrice(Double price) {
+        changes.put("price", price);
+    }
+
+    public void setMileage(Integer mileage) {
+        changes.put("mileage", mileage);
+    }
+
+    public void setStatus(String status) {
+        changes.put("status", status);
+    }
+
+    public void setCondition(String condition) {
+        changes.put("condition", condition);
+    }
+
+    public void setDetailsJson(String detailsJson) {
+        changes.put("detailsJson", detailsJson);
+    }
+
+    // id, timestamps, generated columns and anything unknown
+    @JsonAnySetter
+    public void setUnknown(String name, Object value) {
+        unknownFields.add(name);
+    }
+}
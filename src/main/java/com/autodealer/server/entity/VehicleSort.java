@@ -0,0 +1,50 @@
+package com.autodealer.server.entity;
+
+import java.util.Locale;
+
+// Sort orders offered by the Explore page. Every order is paired with the
+// vehicle id as a tie-breaker so keyset pagination can seek on (key, id).
+// Ids are assigned in insertion order, so "recent" sorts on the id alone.
+public enum VehicleSort {
+    RECENT("recent", "id", true),
+    YEAR_NEWEST("year-newest", "year", true),
+    YEAR_OLDEST("year-oldest", "year", false),
+    PRICE_HIGHEST("price-highest", "price", true),
+    PRICE_LOWEST("price-lowest", "price", false),
+    MILEAGE_LOWEST("mileage-lowest", "mileage", false),
+    MILEAGE_HIGHEST("mileage-highest", "mileage", true);
+
+    private final String param;
+    private final String property;
+    private final boolean descending;
+
+    VehicleSort(String param, String property, boolean descending) {
+        this.param = param;
+        this.property = property;
+        this.descending = descending;
+    }
+
+    public String getParam() {
+        return param;
+    }
+
+    public String getProperty() {
+        return property;
+    }
+
+    public boolean isDescending() {
+        return descending;
+    }
+
+    public static VehicleSort fromParam(String param) {
+        if (param == null || param.isBlank())
+            return YEAR_NEWEST;
+
+        String normalized = param.trim().toLowerCase(Locale.ROOT);
+        for (VehicleSort sort : values()) {
+            if (sort.param.equals(normalized))
+                return sort;
+        }
+        throw new IllegalArgumentException("Unknown sort: " + param);
+    }
+}
@@ -0,0 +1,261 @@
+package com.autodealer.server.images;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import net.coobird.thumbnailator.Thumbnails;
+
+// Images resized on request to a whitelisted width and quality, for layouts
+// the stored renditions do not fit (retina cards, open-graph previews). A
+// derivative is made from the largest stored rendition on first request and
+// kept as a file under upload.derivatives.path; later requests are served
+// from that file. Requests that miss on the same derivative at once share
+// one resize. The cache is bounded by total size and drops the least
+// recently served files first.
+@Component
+public class DerivativeCache {
+
+    @Autowired
+    private HotImageCache hotImageCache;
+
+    @Value("${upload.path}")
+    private String uploadPath;
+
+    @Value("${upload.derivatives.path:}")
+    private String cachePath;
+
+    @Value("${upload.derivatives.widths:320,480,640,960,1280,1920}")
+    private int[] widths;
+
+    @Value("${upload.derivatives.qualities:50,70,85}")
+    private int[] qualities;
+
+    @Value("${upload.derivatives.max-size:536870912}")
+    private long maxSize; // bytes
+
+    private Path cacheDir;
+
+    // File name -> size, least recently served first; guarded by itself
+    private final LinkedHashMap<String, Long> entries = new LinkedHashMap<>(256, 0.75f, true);
+    private long totalSize; // guarded by entries
+
+    private final Map<String, CompletableFuture<Path>> inFlight = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() throws IOException {
+        cacheDir = (cachePath.isBlank() ? Paths.get(uploadPath, "derivatives") : Paths.get(cachePath)).normalize();
+        Files.createDirectories(cacheDir);
+
+        // Oldest first, so the LRU order survives a restart approximately
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(cacheDir)) {
+            for (Path file : stream) {
+                if (Files.isRegularFile(file))
+                    files.add(file);
+            }
+        }
+        files.sort(Comparator.comparingLong(DerivativeCache::lastModified));
+        for (Path file : files) {
+            String name = file.getFileName().toString();
+            if (name.endsWith(".tmp")) {
+                Files.deleteIfExists(file); // left over from a crash mid-write
+                continue;
+            }
+            add(name, Files.size(file));
+        }
+        evictOverflow(null);
+    }
+
+    public boolean isAllowed(int width, int quality) {
+        return Arrays.stream(widths).anyMatch(w -> w == width)
+                && Arrays.stream(qualities).anyMatch(q -> q == quality);
+    }
+
+    public String describeAllowed() {
+        return "width one of " + join(widths) + ", quality one of " + join(qualities);
+    }
+
+    // The derivative file, made now if it is not cached yet; null when the
+    // image itself does not exist
+    public Path get(String filename, int width, int quality) throws IOException {
+        String name = derivativeName(filename, width, quality);
+        synchronized (entries) {
+            if (entries.get(name) != null)
+                return cacheDir.resolve(name);
+        }
+
+        CompletableFuture<Path> mine = new CompletableFuture<>();
+        CompletableFuture<Path> running = inFlight.putIfAbsent(name, mine);
+        if (running != null)
+            return await(running);
+
+        try {
+            mine.complete(generate(filename, name, width, quality));
+        } catch (IOException | RuntimeException e) {
+            mine.completeExceptionally(e);
+        } finally {
+            inFlight.remove(name);
+        }
+        return await(mine);
+    }
+
+    // Drops every derivative of an image (on delete)
+    public void evict(String filename) {
+        String prefix = stem(filename) + "-w";
+        List<String> removed = new ArrayList<>();
+        synchronized (entries) {
+            Iterator<Map.Entry<String, Long>> it = entries.entrySet().iterator();
+            while (it.hasNext()) {
+                Map.Entry<String, Long> entry = it.next();
+                if (entry.getKey().startsWith(prefix)) {
+                    totalSize -= entry.getValue();
+                    removed.add(entry.getKey());
+                    it.remove();
+                }
+            }
+        }
+        removed.forEach(this::deleteFile);
+    }
+
+    private Path generate(String filename, String name, int width, int quality) throws IOException {
+        Path source = null;
+        for (ImageRendition rendition : ImageRendition.FULL.fallbacks()) {
+            Path candidate = Paths.get(uploadPath).resolve(rendition.fileName(filename)).normalize();
+            if (Files.isRegularFile(candidate)) {
+                source = candidate;
+                break;
+            }
+        }
+        if (source == null)
+            return null;
+
+        // Written beside the final name and moved in, so a half-written file
+        // is never served
+        Path target = cacheDir.resolve(name);
+        Path temp = cacheDir.resolve(name + ".tmp");
+        try (OutputStream out = Files.newOutputStream(temp)) {
+            Thumbnails.Builder<?> builder = Thumbnails.of(source.toFile());
+            // Never scaled up past the source
+            if (widthOf(source) > width)
+                builder.width(width);
+            else
+                builder.scale(1.0);
+            builder.outputQuality(quality / 100.0).toOutputStream(out);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        synchronized (entries) {
+            add(name, Files.size(target));
+        }
+        evictOverflow(name);
+        return target;
+    }
+
+    private void add(String name, long size) {
+        Long previous = entries.put(name, size);
+        totalSize += size - (previous != null ? previous : 0);
+    }
+
+    // Never drops keep, the file about to be served
+    private void evictOverflow(String keep) {
+        List<String> removed = new ArrayList<>();
+        synchronized (entries) {
+            Iterator<Map.Entry<String, Long>> it = entries.entrySet().iterator();
+            while (totalSize > maxSize && it.hasNext()) {
+                Map.Entry<String, Long> eldest = it.next();
+                if (eldest.getKey().equals(keep))
+                    continue;
+                totalSize -= eldest.getValue();
+                removed.add(eldest.getKey());
+                it.remove();
+            }
+        }
+        removed.forEach(this::deleteFile);
+    }
+
+    private void deleteFile(String name) {
+        hotImageCache.invalidate(name);
+        try {
+            Files.deleteIfExists(cacheDir.resolve(name));
+        } catch (IOException e) {
+            System.err.println("Failed to delete cached image " + name + ": " + e.getMessage());
+        }
+    }
+
+    private static Path await(CompletableFuture<Path> future) throws IOException {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof IOException io)
+                throw io;
+            throw e;
+        }
+    }
+
+    // "<uuid>.jpeg" at 640px, quality 70 -> "<uuid>-w640-q70.jpeg"
+    private static String derivativeName(String filename, int width, int quality) {
+        int dot = filename.lastIndexOf('.');
+        return stem(filename) + "-w" + width + "-q" + quality + (dot < 0 ? "" : filename.substring(dot));
+    }
+
+    private static String stem(String filename) {
+        int dot = filename.lastIndexOf('.');
+        return dot < 0 ? filename : filename.substring(0, dot);
+    }
+
+    private static long lastModified(Path file) {
+        try {
+            return Files.getLastModifiedTime(file).toMillis();
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    // Read from the header, without decoding the image
+    private static int widthOf(Path image) throws IOException {
+        try (ImageInputStream in = ImageIO.createImageInputStream(image.toFile())) {
+            Iterator<ImageReader> readers = in != null ? ImageIO.getImageReaders(in) : null;
+            if (readers == null || !readers.hasNext())
+                throw new IOException("Not a readable image: " + image.getFileName());
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in);
+                return reader.getWidth(0);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    private static String join(int[] values) {
+        return Arrays.stream(values).mapToObj(Integer::toString).collect(Collectors.joining(", "));
+    }
+}
@@ -0,0 +1,199 @@
+package com.autodealer.server.images;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+// The bytes of the most requested small images (thumbnails, cards), held in
+// direct ByteBuffers outside the Java heap so a large cache adds nothing to
+// GC work. Bounded by total bytes. Admission is frequency-aware in the
+// TinyLFU style: every request is counted in a small count-min sketch, and a
+// new image only displaces the least recently used ones if it has been asked
+// for more often than they have. A burst of one-off requests (a crawler
+// walking the whole inventory) therefore cannot flush the hot set.
+@Component
+public class HotImageCache {
+
+    private static final int SKETCH_DEPTH = 4;
+    private static final int SKETCH_WIDTH = 1 << 14;
+    private static final int MAX_COUNT = 15;
+    private static final int[] SEEDS = { 0x9E3779B9, 0x85EBCA6B, 0xC2B2AE35, 0x27D4EB2F };
+
+    @Value("${upload.hot-cache.max-size:67108864}")
+    private long maxSize; // bytes
+
+    @Value("${upload.hot-cache.max-entry-size:262144}")
+    private long maxEntrySize; // bytes
+
+    // A cached file: its content and the attributes it was read with
+    public record Entry(ByteBuffer bytes, long lastModified) {
+        public long length() {
+            return bytes.capacity();
+        }
+    }
+
+    public record Stats(long hits, long misses, long evictions, long rejections, int entries, long size,
+            long maxSize) {
+    }
+
+    // Path -> entry, least recently used first; everything below is guarded by this
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(256, 0.75f, true);
+    private long size;
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long rejections;
+    // Bumped by every invalidate, so a load that read a file before it was
+    // invalidated (and is about to be deleted) does not cache it afterwards
+    private long invalidations;
+
+    // Request counts, halved every SKETCH_WIDTH * 10 requests so old
+    // popularity fades
+    private final byte[][] sketch = new byte[SKETCH_DEPTH][SKETCH_WIDTH];
+    private int sketchAdditions;
+
+    // The cached entry for a file, or null. Only hits are counted here; the
+    // caller reports a miss once it knows the file exists (see miss), so
+    // probing for renditions that are not there skews neither the stats nor
+    // the sketch.
+    public synchronized Entry get(Path file) {
+        String key = file.toString();
+        Entry entry = entries.get(key);
+        if (entry != null) {
+            increment(key);
+            hits++;
+        }
+        return entry;
+    }
+
+    // A request for an existing file that was not cached
+    public synchronized void miss(Path file) {
+        increment(file.toString());
+        misses++;
+    }
+
+    // Reads a missed file into the cache if it is small enough and popular
+    // enough to earn its space; null when it is not admitted
+    public Entry load(Path file, long length, long lastModified) throws IOException {
+        if (length > maxEntrySize || length > maxSize || length == 0)
+            return null;
+        long generation;
+        synchronized (this) {
+            if (!admits(file.toString(), length))
+                return null;
+            generation = invalidations;
+        }
+
+        ByteBuffer bytes = ByteBuffer.allocateDirect((int) length);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            while (bytes.hasRemaining() && channel.read(bytes) >= 0) {
+                // keep reading
+            }
+        }
+        if (bytes.hasRemaining())
+            return null; // shrank while reading
+        bytes.flip();
+
+        Entry entry = new Entry(bytes.asReadOnlyBuffer(), lastModified);
+        synchronized (this) {
+            if (invalidations != generation)
+                return null; // may have been deleted since it was read
+            Entry previous = entries.remove(file.toString());
+            if (previous != null)
+                size -= previous.length();
+            Iterator<Entry> it = entries.values().iterator();
+            while (size + length > maxSize && it.hasNext()) {
+                size -= it.next().length();
+                evictions++;
+                it.remove();
+            }
+            entries.put(file.toString(), entry);
+            size += length;
+        }
+        return entry;
+    }
+
+    // Drops every cached file of an upload: its renditions and derivatives
+    public synchronized void invalidate(String filename) {
+        invalidations++;
+        int dot = filename.lastIndexOf('.');
+        String stem = dot < 0 ? filename : filename.substring(0, dot);
+        Iterator<Map.Entry<String, Entry>> it = entries.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<String, Entry> cached = it.next();
+            String name = Path.of(cached.getKey()).getFileName().toString();
+            if (name.equals(filename) || name.startsWith(stem + "-")) {
+                size -= cached.getValue().length();
+                it.remove();
+            }
+        }
+    }
+
+    public synchronized Stats stats() {
+        return new Stats(hits, misses, evictions, rejections, entries.size(), size, maxSize);
+    }
+
+    // Caller holds the lock
+    private boolean admits(String key, long length) {
+        if (entries.containsKey(key))
+            return true;
+        if (size + length <= maxSize)
+            return true;
+        // Only if it is more popular than everything it would push out. The
+        // entries are walked without get(), which on an access-ordered map
+        // would reorder them mid-iteration.
+        int frequency = frequency(key);
+        long freed = 0;
+        for (Map.Entry<String, Entry> victim : entries.entrySet()) {
+            if (frequency(victim.getKey()) >= frequency) {
+                rejections++;
+                return false;
+            }
+            freed += victim.getValue().length();
+            if (size - freed + length <= maxSize)
+                return true;
+        }
+        rejections++;
+        return false;
+    }
+
+    private void increment(String key) {
+        int hash = key.hashCode();
+        for (int row = 0; row < SKETCH_DEPTH; row++) {
+            int slot = index(hash, row);
+            if (sketch[row][slot] < MAX_COUNT)
+                sketch[row][slot]++;
+        }
+        if (++sketchAdditions == SKETCH_WIDTH * 10) {
+            for (byte[] counters : sketch) {
+                for (int i = 0; i < counters.length; i++) {
+                    counters[i] >>= 1;
+                }
+            }
+            sketchAdditions = 0;
+        }
+    }
+
+    private int frequency(String key) {
+        int hash = key.hashCode();
+        int min = MAX_COUNT;
+        for (int row = 0; row < SKETCH_DEPTH; row++) {
+            min = Math.min(min, sketch[row][index(hash, row)]);
+        }
+        return min;
+    }
+
+    private static int index(int hash, int row) {
+        int h = hash * SEEDS[row];
+        h ^= h >>> 17;
+        return h & (SKETCH_WIDTH - 1);
+    }
+}
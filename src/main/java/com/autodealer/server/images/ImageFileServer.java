@@ -0,0 +1,201 @@
+package com.autodealer.server.images;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+// Writes an image file straight to the response. One stat per request gives
+// the validators (ETag from size and mtime, Last-Modified), the content type
+// comes from the extension, and the bytes go out through Tomcat's sendfile
+// when the connector offers it (FileChannel.transferTo otherwise), so the
+// file is never copied through the heap. Popular small images come from
+// HotImageCache instead. Single byte ranges are honoured, with If-Range;
+// anything fancier gets the whole file.
+@Component
+public class ImageFileServer {
+
+    private static final Map<String, String> CONTENT_TYPES = Map.of(
+            "jpg", "image/jpeg",
+            "jpeg", "image/jpeg",
+            "png", "image/png",
+            "gif", "image/gif",
+            "webp", "image/webp",
+            "avif", "image/avif",
+            "bmp", "image/bmp");
+
+    // Upload names are content hashes (random UUIDs before that), plus a
+    // rendition or derivative suffix, and are never rewritten, so their
+    // content can be cached for good
+    private static final Pattern IMMUTABLE_NAME = Pattern.compile(
+            "([0-9a-f]{64}|[0-9a-f]{8}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{12})(-[a-z]+|-w\\d+-q\\d+)?(\\.\\w+)?");
+    private static final Pattern HASH_NAME = Pattern.compile("[0-9a-f]{64}(-[a-z]+|-w\\d+-q\\d+)?(\\.\\w+)?");
+    private static final String IMMUTABLE = "public, max-age=31536000, immutable";
+    private static final String SHORT_LIVED = "public, max-age=604800";
+
+    private static final Pattern SINGLE_RANGE = Pattern.compile("bytes=(\\d*)-(\\d*)");
+
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    @Autowired
+    private HotImageCache hotImageCache;
+
+    // False if the file does not exist; nothing is written then
+    public boolean serve(Path file, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        // A cached image is answered without touching the disk at all
+        HotImageCache.Entry cached = hotImageCache.get(file);
+        long length;
+        long lastModified;
+        if (cached != null) {
+            length = cached.length();
+            lastModified = cached.lastModified();
+        } else {
+            BasicFileAttributes attributes;
+            try {
+                attributes = Files.readAttributes(file, BasicFileAttributes.class);
+            } catch (NoSuchFileException e) {
+                return false;
+            }
+            if (!attributes.isRegularFile())
+                return false;
+            hotImageCache.miss(file);
+            length = attributes.size();
+            lastModified = attributes.lastModifiedTime().toMillis();
+        }
+        String name = file.getFileName().toString();
+        // A hash-named file is its own validator; touching it on reuse must
+        // not make clients download it again
+        String etag = HASH_NAME.matcher(name).matches()
+                ? "\"" + name + "\""
+                : "\"" + Long.toHexString(length) + "-" + Long.toHexString(lastModified) + "\"";
+
+        response.setHeader(HttpHeaders.CACHE_CONTROL,
+                IMMUTABLE_NAME.matcher(name).matches() ? IMMUTABLE : SHORT_LIVED);
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        if (new ServletWebRequest(request, response).checkNotModified(etag, lastModified))
+            return true;
+
+        response.setContentType(contentTypeOf(name));
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"" + name + "\"");
+
+        long start = 0;
+        long end = length; // exclusive
+        String range = request.getHeader(HttpHeaders.RANGE);
+        if (range != null && rangeApplies(request.getHeader(HttpHeaders.IF_RANGE), etag, lastModified)) {
+            Matcher matcher = SINGLE_RANGE.matcher(range.trim());
+            // A malformed range (none, or last before first) is ignored and
+            // the whole file is served
+            if (matcher.matches() && validRange(matcher.group(1), matcher.group(2))) {
+                if (matcher.group(1).isEmpty()) {
+                    // bytes=-n: the last n bytes
+                    start = Math.max(0, length - parse(matcher.group(2)));
+                } else {
+                    start = parse(matcher.group(1));
+                    // Clamped before adding one, so a huge last cannot overflow
+                    if (!matcher.group(2).isEmpty())
+                        end = Math.min(length - 1, parse(matcher.group(2))) + 1;
+                }
+                if (start >= end) {
+                    response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                    response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                    return true;
+                }
+                response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + (end - 1) + "/" + length);
+            }
+        }
+
+        response.setContentLengthLong(end - start);
+        if ("HEAD".equals(request.getMethod()))
+            return true;
+
+        if (cached == null)
+            cached = hotImageCache.load(file, length, lastModified);
+        if (cached != null) {
+            ByteBuffer bytes = cached.bytes().duplicate();
+            bytes.limit((int) end).position((int) start);
+            OutputStream out = response.getOutputStream();
+            Channels.newChannel(out).write(bytes);
+            out.flush();
+            return true;
+        }
+
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            request.setAttribute(SENDFILE_FILENAME, file.toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, end);
+            return true;
+        }
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            OutputStream out = response.getOutputStream();
+            WritableByteChannel target = Channels.newChannel(out);
+            long position = start;
+            while (position < end) {
+                position += channel.transferTo(position, end - position, target);
+            }
+            out.flush();
+        }
+        return true;
+    }
+
+    // Without If-Range, or when it still matches, the range is served;
+    // otherwise the client's copy is stale and gets the whole file
+    private static boolean rangeApplies(String ifRange, String etag, long lastModified) {
+        if (ifRange == null)
+            return true;
+        if (ifRange.startsWith("\"") || ifRange.startsWith("W/"))
+            return ifRange.equals(etag);
+        try {
+            long since = ZonedDateTime.parse(ifRange, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant().toEpochMilli();
+            return lastModified / 1000 == since / 1000; // date validators must match exactly
+        } catch (DateTimeParseException e) {
+            return false;
+        }
+    }
+
+    private static String contentTypeOf(String name) {
+        int dot = name.lastIndexOf('.');
+        String type = dot < 0 ? null : CONTENT_TYPES.get(name.substring(dot + 1).toLowerCase(Locale.ROOT));
+        return type != null ? type : "application/octet-stream";
+    }
+
+    private static boolean validRange(String first, String last) {
+        if (first.isEmpty())
+            return !last.isEmpty();
+        return last.isEmpty() || parse(last) >= parse(first);
+    }
+
+    private static long parse(String digits) {
+        try {
+            return Long.parseLong(digits);
+        } catch (NumberFormatException e) {
+            return Long.MAX_VALUE; // absurdly long: unsatisfiable
+        }
+    }
+}
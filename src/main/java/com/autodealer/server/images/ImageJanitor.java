@@ -0,0 +1,208 @@
+package com.autodealer.server.images;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.autodealer.server.repository.ImageSourceRepository;
+import com.autodealer.server.repository.VehicleRepository;
+
+import jakarta.annotation.PreDestroy;
+
+// Removes image files off the request path. Deletes are queued to one
+// background thread, so a request no longer waits on the filesystem per
+// image. A scheduled sweep removes files no vehicle references (uploads from
+// abandoned Add Vehicle forms, deletes lost to a restart) once they are older
+// than the grace period, which leaves time to save a form after uploading.
+// An upload that reuses a stored image marks it used (markUsed) under the
+// same lock the deletes take, and every delete re-checks that mark under
+// it, so a file handed to an upload is never removed behind its back.
+@Component
+public class ImageJanitor {
+
+    private static final int SWEEP_BATCH_SIZE = 500; // filenames checked per query
+
+    @Autowired
+    private VehicleRepository vehicleRepository;
+
+    @Autowired
+    private DerivativeCache derivativeCache;
+
+    @Autowired
+    private HotImageCache hotImageCache;
+
+    @Autowired
+    private ImageSourceRepository imageSourceRepository;
+
+    @Value("${upload.path}")
+    private String uploadPath;
+
+    @Value("${upload.sweep.grace-period:86400000}")
+    private long gracePeriod;
+
+    private final ReentrantLock deleteLock = new ReentrantLock();
+
+    private final ExecutorService deleter = Executors.newSingleThreadExecutor(
+            Thread.ofPlatform().name("image-janitor").daemon().factory());
+
+    @PreDestroy
+    public void shutdown() {
+        // Whatever is still queued is unreferenced, so the next sweep gets it
+        deleter.shutdown();
+    }
+
+    // Images are shared by content, so a file only goes once no vehicle
+    // references it any more. One that an upload reused within the grace
+    // period may be about to be referenced again and is left to the sweep.
+    public void deleteLater(List<String> filenames) {
+        if (filenames.isEmpty())
+            return;
+        List<String> queued = List.copyOf(filenames);
+        // Out of memory right away, so nothing is served once the call returns
+        queued.forEach(hotImageCache::invalidate);
+        deleter.execute(() -> {
+            Set<String> referenced = new HashSet<>(vehicleRepository.findReferencedFilenames(queued));
+            long cutoff = System.currentTimeMillis() - gracePeriod;
+            for (String filename : queued) {
+                if (referenced.contains(filename))
+                    continue;
+                deleteLock.lock();
+                try {
+                    if (!usedSince(filename, cutoff))
+                        deleteImage(filename);
+                } finally {
+                    deleteLock.unlock();
+                }
+            }
+        });
+    }
+
+    @Scheduled(initialDelayString = "${upload.sweep.initial-delay:600000}",
+            fixedDelayString = "${upload.sweep.interval:21600000}")
+    public void sweep() {
+        Path uploadDir = Paths.get(uploadPath);
+        if (!Files.isDirectory(uploadDir))
+            return;
+
+        long cutoff = System.currentTimeMillis() - gracePeriod;
+        int checked = 0;
+        int removed = 0;
+        // Streamed and checked in batches, so memory stays flat however many
+        // files the directory holds
+        List<String> batch = new ArrayList<>(SWEEP_BATCH_SIZE);
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(uploadDir)) {
+            for (Path file : files) {
+                if (!Files.isRegularFile(file) || Files.getLastModifiedTime(file).toMillis() > cutoff)
+                    continue;
+                batch.add(file.getFileName().toString());
+                if (batch.size() == SWEEP_BATCH_SIZE) {
+                    checked += batch.size();
+                    removed += removeUnreferenced(batch, cutoff);
+                    batch.clear();
+                }
+            }
+            checked += batch.size();
+            removed += removeUnreferenced(batch, cutoff);
+        } catch (IOException e) {
+            System.err.println("Image sweep stopped: " + e.getMessage());
+        }
+
+        if (removed > 0)
+            System.out.println("Image sweep removed " + removed + " orphaned files of " + checked + " checked");
+    }
+
+    // Marks an existing image as just used, so neither a queued delete nor
+    // the orphan sweep removes it before the form that is about to reference
+    // it is saved; false if it is gone
+    public boolean markUsed(String filename) throws IOException {
+        Path uploadDir = Paths.get(uploadPath);
+        deleteLock.lock();
+        try {
+            if (!Files.isRegularFile(uploadDir.resolve(filename)))
+                return false;
+            FileTime now = FileTime.fromMillis(System.currentTimeMillis());
+            for (ImageRendition rendition : ImageRendition.values()) {
+                Path file = uploadDir.resolve(rendition.fileName(filename));
+                if (Files.exists(file))
+                    Files.setLastModifiedTime(file, now);
+            }
+            return true;
+        } finally {
+            deleteLock.unlock();
+        }
+    }
+
+    // Rendition files are kept as long as their upload name is referenced, or
+    // was reused by an upload since the directory was listed
+    private int removeUnreferenced(List<String> filenames, long cutoff) {
+        if (filenames.isEmpty())
+            return 0;
+        Set<String> baseNames = new HashSet<>();
+        for (String filename : filenames) {
+            baseNames.add(ImageRendition.baseName(filename));
+        }
+        Set<String> referenced = new HashSet<>(vehicleRepository.findReferencedFilenames(baseNames));
+        int removed = 0;
+        deleteLock.lock();
+        try {
+            for (String filename : filenames) {
+                String baseName = ImageRendition.baseName(filename);
+                if (!referenced.contains(baseName) && !usedSince(baseName, cutoff) && delete(filename))
+                    removed++;
+            }
+            for (String baseName : baseNames) {
+                if (!referenced.contains(baseName) && !usedSince(baseName, cutoff))
+                    imageSourceRepository.deleteByFilename(baseName);
+            }
+        } finally {
+            deleteLock.unlock();
+        }
+        return removed;
+    }
+
+    // All renditions and derivatives of an upload, and its dedupe entry
+    private void deleteImage(String filename) {
+        for (ImageRendition rendition : ImageRendition.values()) {
+            delete(rendition.fileName(filename));
+        }
+        derivativeCache.evict(filename);
+        imageSourceRepository.deleteByFilename(filename);
+    }
+
+    private boolean usedSince(String filename, long cutoff) {
+        try {
+            return Files.getLastModifiedTime(Paths.get(uploadPath).resolve(filename)).toMillis() > cutoff;
+        } catch (IOException e) {
+            return false; // already gone
+        }
+    }
+
+    private boolean delete(String filename) {
+        Path uploadDir = Paths.get(uploadPath).normalize();
+        Path file = uploadDir.resolve(filename).normalize();
+        if (!file.getParent().equals(uploadDir))
+            return false; // not a plain name in the upload directory
+        hotImageCache.invalidate(ImageRendition.baseName(filename));
+        try {
+            return Files.deleteIfExists(file);
+        } catch (IOException e) {
+            System.err.println("Failed to delete image " + filename + ": " + e.getMessage());
+            return false;
+        }
+    }
+}
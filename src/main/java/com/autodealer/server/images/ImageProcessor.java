@@ -0,0 +1,289 @@
+package com.autodealer.server.images;
+
+import java.awt.image.BufferedImage;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.multipart.MultipartFile;
+
+import com.autodealer.server.repository.ImageSourceRepository;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import net.coobird.thumbnailator.Thumbnails;
+
+// Resizes uploaded images into their renditions (see ImageRendition) and
+// stores them under content hashes (an upload seen before is not processed
+// again), on a pool sized to the cores, so the files of one upload are
+// processed side by side instead of one after another. The pool is shared by
+// all uploads and its queue is bounded: once it is full the request thread
+// resizes its next file itself, which slows that upload down instead of
+// piling up work. Decoded images are the big allocation, so each file also
+// waits for its share of a fixed memory budget before it is decoded.
+@Component
+public class ImageProcessor {
+
+    // Renditions are written under these names in the upload directory
+    // before they are moved into place
+    private static final String TEMP_PREFIX = "upload-";
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    @Autowired
+    private ImageSourceRepository imageSourceRepository;
+
+    @Autowired
+    private ImageJanitor imageJanitor;
+
+    @Value("${upload.path}")
+    private String uploadPath;
+
+    @Value("${upload.processing.threads:0}")
+    private int threads;
+
+    @Value("${upload.processing.queue-size:64}")
+    private int queueSize;
+
+    @Value("${upload.processing.memory-budget:268435456}")
+    private long memoryBudgetBytes;
+
+    @Value("${upload.processing.max-pixels:40000000}")
+    private long maxPixels;
+
+    private ThreadPoolExecutor workers;
+
+    // Decoded image memory shared by all uploads, in KB
+    private Semaphore memoryBudget;
+
+    // One file's outcome: the stored filename, or the error that stopped it.
+    // deduplicated when an identical image was already stored.
+    public record Result(String filename, String error, long millis, boolean deduplicated) {
+        public boolean ok() {
+            return error == null;
+        }
+    }
+
+    @PostConstruct
+    public void init() {
+        memoryBudget = new Semaphore((int) Math.max(1, memoryBudgetBytes / 1024), true);
+        int size = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        workers = new ThreadPoolExecutor(size, size, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueSize),
+                Thread.ofPlatform().name("image-worker-", 0).daemon().factory(),
+                new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdown();
+    }
+
+    // Results are in upload order; empty files are skipped. A file that fails
+    // gets an error result and does not stop the others.
+    public List<Result> process(MultipartFile[] files) throws IOException {
+        Path uploadDir = Paths.get(uploadPath);
+        Files.createDirectories(uploadDir);
+
+        List<Future<Result>> pending = new ArrayList<>(files.length);
+        for (MultipartFile file : files) {
+            if (!file.isEmpty())
+                pending.add(workers.submit(() -> resize(file, uploadDir)));
+        }
+
+        List<Result> results = new ArrayList<>(pending.size());
+        for (Future<Result> result : pending) {
+            try {
+                results.add(result.get());
+            } catch (ExecutionException e) {
+                results.add(new Result(null, String.valueOf(e.getCause().getMessage()), 0, false));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while processing images", e);
+            }
+        }
+        return results;
+    }
+
+    private Result resize(MultipartFile file, Path uploadDir) {
+        long start = System.nanoTime();
+        String originalFilename = file.getOriginalFilename();
+        try {
+            // The same photo again: reuse its file without decoding it
+            String sourceHash;
+            try (InputStream in = file.getInputStream()) {
+                sourceHash = sha256(in);
+            }
+            Optional<String> known = imageSourceRepository.findFilename(sourceHash);
+            if (known.isPresent() && imageJanitor.markUsed(known.get()))
+                return new Result(known.get(), null, elapsedMillis(start), true);
+
+            // Formats ImageIO cannot write are stored as JPEG
+            String extension = originalFilename != null && originalFilename.contains(".")
+                    ? originalFilename.substring(originalFilename.lastIndexOf(".")).toLowerCase(Locale.ROOT)
+                    : "";
+            if (!ImageIO.getImageWritersBySuffix(extension.isEmpty() ? "" : extension.substring(1)).hasNext())
+                extension = ".jpg";
+
+            int permits = reserveMemory(file);
+            Stored stored;
+            try {
+                stored = storeRenditions(file, uploadDir, extension);
+            } finally {
+                memoryBudget.release(permits);
+            }
+            imageSourceRepository.save(sourceHash, stored.filename());
+            return new Result(stored.filename(), null, elapsedMillis(start), stored.existing());
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Failed to process image " + originalFilename + ": " + e.getMessage());
+            return new Result(null, String.valueOf(e.getMessage()), elapsedMillis(start), false);
+        }
+    }
+
+    private record Stored(String filename, boolean existing) {
+    }
+
+    // Decoded once (EXIF orientation applied); each rendition is scaled from
+    // the next larger one, largest first, and streamed to a temp file in the
+    // upload directory that is then moved into place, so no encoded copy is
+    // held in memory and nobody sees half a file. The name is the hash of the
+    // full rendition, so different uploads that come out the same share one
+    // set of files.
+    private Stored storeRenditions(MultipartFile file, Path uploadDir, String extension) throws IOException {
+        String format = extension.substring(1);
+        BufferedImage image;
+        try (InputStream in = file.getInputStream()) {
+            image = Thumbnails.of(in).scale(1.0).asBufferedImage();
+        }
+
+        ImageRendition[] renditions = ImageRendition.values();
+        String filename = null;
+        for (int i = renditions.length - 1; i >= 0; i--) {
+            ImageRendition rendition = renditions[i];
+            image = fit(image, rendition.maxSize());
+            Path temp = Files.createTempFile(uploadDir, TEMP_PREFIX, TEMP_SUFFIX);
+            try {
+                MessageDigest digest = sha256();
+                try (OutputStream out = new DigestOutputStream(
+                        new BufferedOutputStream(Files.newOutputStream(temp)), digest)) {
+                    Thumbnails.of(image)
+                            .scale(1.0)
+                            .outputFormat(format)
+                            .outputQuality(rendition.quality())
+                            .toOutputStream(out);
+                }
+                if (filename == null) {
+                    filename = HexFormat.of().formatHex(digest.digest()) + extension;
+                    if (imageJanitor.markUsed(filename))
+                        return new Stored(filename, true);
+                }
+                Files.move(temp, uploadDir.resolve(rendition.fileName(filename)),
+                        StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+        }
+        return new Stored(filename, false);
+    }
+
+    // A half-written rendition, never to be served
+    public static boolean isTempFile(String filename) {
+        return filename.startsWith(TEMP_PREFIX) && filename.endsWith(TEMP_SUFFIX);
+    }
+
+    // Waits until the decoded image fits in the shared budget. One that could
+    // never fit is refused rather than run outside it.
+    private int reserveMemory(MultipartFile file) throws IOException {
+        long needed = decodedSize(file);
+        if (needed > memoryBudgetBytes)
+            throw new IllegalArgumentException("Image needs about " + needed / (1024 * 1024)
+                    + " MB to process, more than the " + memoryBudgetBytes / (1024 * 1024) + " MB allowed");
+        int permits = (int) Math.max(1, needed / 1024);
+        try {
+            memoryBudget.acquire(permits);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for upload memory", e);
+        }
+        return permits;
+    }
+
+    // Heap the decode takes: 4 bytes per pixel, twice (the decoded image and
+    // the scaled copy made from it), from the header alone; the upload's own
+    // size when the header cannot be read. Images over upload.processing.max-pixels
+    // are refused.
+    private long decodedSize(MultipartFile file) throws IOException {
+        try (InputStream in = file.getInputStream();
+                ImageInputStream images = ImageIO.createImageInputStream(in)) {
+            Iterator<ImageReader> readers = images != null ? ImageIO.getImageReaders(images) : null;
+            if (readers == null || !readers.hasNext())
+                return file.getSize();
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(images);
+                long pixels = (long) reader.getWidth(0) * reader.getHeight(0);
+                if (pixels > maxPixels)
+                    throw new IllegalArgumentException("Image is " + reader.getWidth(0) + "x" + reader.getHeight(0)
+                            + ", more than the " + maxPixels + " pixels allowed");
+                return 8L * pixels;
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    private static String sha256(InputStream in) throws IOException {
+        MessageDigest digest = sha256();
+        byte[] buffer = new byte[8192];
+        int read;
+        while ((read = in.read(buffer)) > 0) {
+            digest.update(buffer, 0, read);
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e); // required of every JVM
+        }
+    }
+
+    // Scales down to fit maxSize; never scales up
+    private static BufferedImage fit(BufferedImage image, int maxSize) throws IOException {
+        if (image.getWidth() <= maxSize && image.getHeight() <= maxSize)
+            return image;
+        return Thumbnails.of(image).size(maxSize, maxSize).keepAspectRatio(true).asBufferedImage();
+    }
+
+    private static long elapsedMillis(long start) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    }
+}
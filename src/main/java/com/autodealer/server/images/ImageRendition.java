@@ -0,0 +1,77 @@
+package com.autodealer.server.images;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+// The sizes each upload is stored at. FULL keeps the plain upload name that
+// vehicles reference, so images uploaded before renditions existed are
+// simply FULL-only; the others are stored next to it with a suffix
+// ("<uuid>-card.jpeg").
+public enum ImageRendition {
+    THUMB("thumb", 160, 0.70),
+    CARD("card", 480, 0.75),
+    FULL("full", 1600, 0.85);
+
+    private final String key;
+    private final int maxSize; // longest side, px
+    private final double quality;
+
+    ImageRendition(String key, int maxSize, double quality) {
+        this.key = key;
+        this.maxSize = maxSize;
+        this.quality = quality;
+    }
+
+    public int maxSize() {
+        return maxSize;
+    }
+
+    public double quality() {
+        return quality;
+    }
+
+    // ?size= value, or null if it names no rendition
+    public static ImageRendition parse(String size) {
+        for (ImageRendition rendition : values()) {
+            if (rendition.key.equals(size.toLowerCase(Locale.ROOT)))
+                return rendition;
+        }
+        return null;
+    }
+
+    public String fileName(String baseName) {
+        if (this == FULL)
+            return baseName;
+        int dot = baseName.lastIndexOf('.');
+        return dot < 0
+                ? baseName + "-" + key
+                : baseName.substring(0, dot) + "-" + key + baseName.substring(dot);
+    }
+
+    // The upload name a rendition file belongs to
+    public static String baseName(String fileName) {
+        int dot = fileName.lastIndexOf('.');
+        String stem = dot < 0 ? fileName : fileName.substring(0, dot);
+        for (ImageRendition rendition : values()) {
+            if (rendition != FULL && stem.endsWith("-" + rendition.key))
+                return stem.substring(0, stem.length() - rendition.key.length() - 1)
+                        + (dot < 0 ? "" : fileName.substring(dot));
+        }
+        return fileName;
+    }
+
+    // This rendition, then the next larger ones, then the smaller ones: the
+    // nearest substitute that is at least as sharp comes first
+    public List<ImageRendition> fallbacks() {
+        List<ImageRendition> order = new ArrayList<>();
+        ImageRendition[] all = values();
+        for (int i = ordinal(); i < all.length; i++) {
+            order.add(all[i]);
+        }
+        for (int i = ordinal() - 1; i >= 0; i--) {
+            order.add(all[i]);
+        }
+        return order;
+    }
+}
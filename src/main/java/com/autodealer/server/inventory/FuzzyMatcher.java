@@ -0,0 +1,114 @@
+package com.autodealer.server.inventory;
+
+import java.util.HashMap;
+import java.util.Map;
+
+// Trie of search terms used to correct misspelled queries. Each term maps to
+// the text that should replace it: an alias maps to its canonical make, a
+// make or model word maps to itself. Lookups walk the trie with one
+// Levenshtein row per node and prune any branch whose row minimum already
+// exceeds the allowed distance, so the cost is bounded by the query length
+// and the distance rather than by the number of terms.
+class FuzzyMatcher {
+
+    private final Node root = new Node();
+
+    private static final class Node {
+        final Map<Character, Node> children = new HashMap<>();
+        String replacement; // null when no term ends here
+        int refs; // indexed words ending here; fixed terms use Integer.MAX_VALUE
+    }
+
+    private static final class Best {
+        String replacement;
+        int distance = Integer.MAX_VALUE;
+        int refs;
+    }
+
+    // Fixed term such as an alias; never removed
+    void addTerm(String term, String replacement) {
+        Node node = nodeFor(term);
+        node.replacement = replacement;
+        node.refs = Integer.MAX_VALUE;
+    }
+
+    // Reference-counted word from the live inventory
+    void addWord(String word) {
+        Node node = nodeFor(word);
+        if (node.refs == Integer.MAX_VALUE)
+            return;
+        node.replacement = word;
+        node.refs++;
+    }
+
+    void removeWord(String word) {
+        Node node = root;
+        for (int i = 0; i < word.length() && node != null; i++) {
+            node = node.children.get(word.charAt(i));
+        }
+        if (node == null || node.refs == Integer.MAX_VALUE || node.refs == 0)
+            return;
+        if (--node.refs == 0)
+            node.replacement = null;
+    }
+
+    // Replacement for the closest term within the allowed distance, or null.
+    // Ties prefer the term with more references (fixed terms first).
+    String correct(String word) {
+        int maxDistance = maxDistance(word.length());
+        int[] firstRow = new int[word.length() + 1];
+        for (int i = 0; i < firstRow.length; i++) {
+            firstRow[i] = i;
+        }
+
+        Best best = new Best();
+        for (Map.Entry<Character, Node> child : root.children.entrySet()) {
+            walk(child.getValue(), child.getKey(), word, firstRow, maxDistance, best);
+        }
+        return best.replacement;
+    }
+
+    // Short words get no slack: "bmx" should not become "bmw"
+    private static int maxDistance(int length) {
+        if (length <= 3)
+            return 0;
+        return length <= 5 ? 1 : 2;
+    }
+
+    private static void walk(Node node, char letter, String word, int[] previous, int maxDistance, Best best) {
+        int[] row = new int[previous.length];
+        row[0] = previous[0] + 1;
+        int rowMin = row[0];
+        for (int i = 1; i < row.length; i++) {
+            int substitution = previous[i - 1] + (word.charAt(i - 1) == letter ? 0 : 1);
+            row[i] = Math.min(Math.min(row[i - 1] + 1, previous[i] + 1), substitution);
+            rowMin = Math.min(rowMin, row[i]);
+        }
+
+        int distance = row[row.length - 1];
+        if (node.replacement != null && distance <= maxDistance)
+            offer(best, node, distance);
+
+        if (rowMin <= maxDistance) {
+            for (Map.Entry<Character, Node> child : node.children.entrySet()) {
+                walk(child.getValue(), child.getKey(), word, row, maxDistance, best);
+            }
+        }
+    }
+
+    private static void offer(Best best, Node node, int distance) {
+        if (distance < best.distance || (distance == best.distance && node.refs > best.refs)) {
+            best.replacement = node.replacement;
+            best.distance = distance;
+            best.refs = node.refs;
+        }
+    }
+
+    private Node nodeFor(String term) {
+        Node node = root;
+        for (int i = 0; i < term.length(); i++) {
+            node = node.children.computeIfAbsent(term.charAt(i), c -> new Node());
+        }
+        return node;
+    }
+}
@@ -0,0 +1,33 @@
+package com.autodealer.server.inventory;
+
+import java.util.List;
+
+import com.autodealer.server.entity.Vehicle;
+
+// Published by every admin write once the rows are saved. Read models
+// (the inventory index, caches) apply it after the transaction commits.
+public class InventoryChangeEvent {
+    private final List<Vehicle> upserted;
+    private final List<Long> deletedIds;
+
+    public InventoryChangeEvent(List<Vehicle> upserted, List<Long> deletedIds) {
+        this.upserted = upserted;
+        this.deletedIds = deletedIds;
+    }
+
+    public static InventoryChangeEvent upserted(Vehicle vehicle) {
+        return new InventoryChangeEvent(List.of(vehicle), List.of());
+    }
+
+    public static InventoryChangeEvent deleted(Long id) {
+        return new InventoryChangeEvent(List.of(), List.of(id));
+    }
+
+    public List<Vehicle> getUpserted() {
+        return upserted;
+    }
+
+    public List<Long> getDeletedIds() {
+        return deletedIds;
+    }
+}
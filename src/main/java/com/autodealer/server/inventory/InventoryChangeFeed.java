@@ -0,0 +1,247 @@
+package com.autodealer.server.inventory;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.autodealer.server.entity.InventoryChange;
+import com.autodealer.server.entity.Vehicle;
+import com.autodealer.server.repository.InventoryChangeRepository;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+// Server-Sent Events over the inventory_changes log. Each event carries the
+// log seq as its id, the kind (created / updated / deleted) as its name and
+// the vehicle's current JSON as data ({"id": n} once it is gone). Clients
+// resume from any seq; recent changes are served from memory, older ones
+// from the table.
+//
+// Connections are async servlet requests, so an idle subscriber holds no
+// thread. Sends run on virtual threads, one catch-up per subscriber at a
+// time, so a slow client only delays itself. Locks are ReentrantLocks, which
+// a waiting virtual thread does not pin to its carrier, and commits only
+// queue a poll when none is waiting already, so a burst of writes (an
+// import flushing chunk after chunk) runs one poll, not one per commit.
+//
+// The log keeps inventory.feed.retention worth of changes. A client
+// resuming from before that gets a "reset" event (id: the oldest seq it can
+// no longer be sent) and should reload the inventory before applying the
+// changes that follow.
+@Component
+public class InventoryChangeFeed {
+
+    private static final long SUBSCRIPTION_TIMEOUT = 30 * 60 * 1000L; // EventSource reconnects after this
+    private static final int TAIL_SIZE = 10_000;
+    private static final int BATCH_SIZE = 500;
+
+    @Autowired
+    private InventoryChangeRepository inventoryChangeRepository;
+
+    @Autowired
+    private InventoryIndex inventoryIndex;
+
+    @Autowired
+    private VehicleJsonCache vehicleJsonCache;
+
+    @Value("${inventory.feed.retention:604800000}")
+    private long retention; // ms
+
+    private final ExecutorService senders = Executors.newVirtualThreadPerTaskExecutor();
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+
+    // Most recent changes, complete for every seq after tailStart
+    private final ConcurrentSkipListMap<Long, InventoryChange> tail = new ConcurrentSkipListMap<>();
+    private volatile long tailStart;
+    private volatile long head; // latest seq read from the log
+    private volatile long prunedThrough; // log rows up to here are gone
+    private int tailCount; // guarded by pollLock
+
+    private final ReentrantLock pollLock = new ReentrantLock();
+    private final AtomicBoolean pollPending = new AtomicBoolean();
+
+    private final class Subscriber {
+        final SseEmitter emitter = new SseEmitter(SUBSCRIPTION_TIMEOUT);
+        final ReentrantLock lock = new ReentrantLock();
+        long lastSeq; // guarded by lock
+
+        Subscriber(long lastSeq) {
+            this.lastSeq = lastSeq;
+        }
+    }
+
+    @PostConstruct
+    public void init() {
+        head = inventoryChangeRepository.findLatestSeq();
+        tailStart = head;
+        prunedThrough = inventoryChangeRepository.findPrunedThrough();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        for (Subscriber subscriber : subscribers) {
+            subscriber.emitter.complete();
+        }
+        senders.shutdownNow();
+    }
+
+    // Starts a feed after the given seq, or at the current end of the log
+    public SseEmitter subscribe(Long after) {
+        Subscriber subscriber = new Subscriber(after != null ? Math.max(after, 0) : head);
+        subscriber.emitter.onCompletion(() -> subscribers.remove(subscriber));
+        subscriber.emitter.onTimeout(() -> subscribers.remove(subscriber));
+        subscriber.emitter.onError(e -> subscribers.remove(subscriber));
+        subscribers.add(subscriber);
+        senders.execute(() -> catchUp(subscriber));
+        return subscriber.emitter;
+    }
+
+    // Runs after InventoryIndex (ordered first), so events carry the updated vehicle
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onInventoryChange(InventoryChangeEvent event) {
+        // The queued poll reads this commit too, however many come first
+        if (pollPending.compareAndSet(false, true))
+            senders.execute(this::poll);
+    }
+
+    @Scheduled(initialDelayString = "${inventory.feed.prune-interval:3600000}",
+            fixedDelayString = "${inventory.feed.prune-interval:3600000}")
+    public void prune() {
+        int removed = inventoryChangeRepository.deleteBefore(System.currentTimeMillis() - retention);
+        if (removed > 0) {
+            prunedThrough = inventoryChangeRepository.findPrunedThrough();
+            System.out.println("Change log pruned " + removed + " rows older than " + retention + " ms");
+        }
+    }
+
+    // Keeps proxies and the browser from closing quiet connections
+    @Scheduled(fixedDelayString = "${inventory.feed.heartbeat-interval:15000}")
+    public void heartbeat() {
+        for (Subscriber subscriber : subscribers) {
+            senders.execute(() -> {
+                if (!subscriber.lock.tryLock())
+                    return; // busy sending, which is a heartbeat in itself
+                try {
+                    subscriber.emitter.send(SseEmitter.event().comment(""));
+                } catch (IOException | IllegalStateException e) {
+                    drop(subscriber);
+                } finally {
+                    subscriber.lock.unlock();
+                }
+            });
+        }
+    }
+
+    // Reads new log rows into the tail, then wakes every subscriber
+    private void poll() {
+        pollLock.lock();
+        try {
+            // Cleared once the lock is held: a commit from now on queues
+            // another poll, which reads whatever this one misses
+            pollPending.set(false);
+            readNewChanges();
+        } finally {
+            pollLock.unlock();
+        }
+
+        for (Subscriber subscriber : subscribers) {
+            senders.execute(() -> catchUp(subscriber));
+        }
+    }
+
+    // Caller holds pollLock
+    private void readNewChanges() {
+        List<InventoryChange> fresh;
+        do {
+            fresh = inventoryChangeRepository.findAfter(head, BATCH_SIZE);
+            for (InventoryChange change : fresh) {
+                tail.put(change.seq(), change);
+                tailCount++;
+            }
+            if (!fresh.isEmpty())
+                head = fresh.get(fresh.size() - 1).seq();
+        } while (fresh.size() == BATCH_SIZE);
+
+        while (tailCount > TAIL_SIZE) {
+            tailStart = tail.pollFirstEntry().getKey();
+            tailCount--;
+        }
+    }
+
+    private void catchUp(Subscriber subscriber) {
+        subscriber.lock.lock();
+        try {
+            long pruned = prunedThrough;
+            if (subscriber.lastSeq < pruned) {
+                subscriber.emitter.send(SseEmitter.event()
+                        .id(Long.toString(pruned))
+                        .name("reset")
+                        .data("{\"seq\":" + pruned + "}", MediaType.APPLICATION_JSON));
+                subscriber.lastSeq = pruned;
+            }
+            List<InventoryChange> batch;
+            while (!(batch = changesAfter(subscriber.lastSeq)).isEmpty()) {
+                for (InventoryChange change : batch) {
+                    subscriber.emitter.send(SseEmitter.event()
+                            .id(Long.toString(change.seq()))
+                            .name(change.kind())
+                            .data(payload(change), MediaType.APPLICATION_JSON));
+                    subscriber.lastSeq = change.seq();
+                }
+            }
+        } catch (IOException | IllegalStateException e) {
+            drop(subscriber);
+        } catch (RuntimeException e) {
+            System.err.println("Change feed failed for a subscriber: " + e.getMessage());
+            drop(subscriber);
+        } finally {
+            subscriber.lock.unlock();
+        }
+    }
+
+    private List<InventoryChange> changesAfter(long seq) {
+        if (seq >= head)
+            return List.of();
+        if (seq < tailStart)
+            return inventoryChangeRepository.findAfter(seq, BATCH_SIZE);
+
+        List<InventoryChange> batch = new ArrayList<>(BATCH_SIZE);
+        for (InventoryChange change : tail.tailMap(seq, false).values()) {
+            batch.add(change);
+            if (batch.size() == BATCH_SIZE)
+                break;
+        }
+        // poll() may have trimmed past seq meanwhile; the table still has it all
+        return seq >= tailStart ? batch : inventoryChangeRepository.findAfter(seq, BATCH_SIZE);
+    }
+
+    private byte[] payload(InventoryChange change) {
+        Optional<Vehicle> vehicle = change.kind().equals("deleted")
+                ? Optional.empty()
+                : inventoryIndex.findById(change.vehicleId());
+        if (vehicle.isPresent())
+            return vehicleJsonCache.get(vehicle.get());
+        return ("{\"id\":" + change.vehicleId() + "}").getBytes(StandardCharsets.UTF_8);
+    }
+
+    // The container reports the broken connection to the emitter itself
+    private void drop(Subscriber subscriber) {
+        subscribers.remove(subscriber);
+    }
+}
@@ -0,0 +1,505 @@
+package com.autodealer.server.inventory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.IntToDoubleFunction;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.autodealer.server.entity.Vehicle;
+import com.autodealer.server.entity.VehicleCursor;
+import com.autodealer.server.entity.VehicleFacetsDTO;
+import com.autodealer.server.entity.VehicleFacetsDTO.FacetCount;
+import com.autodealer.server.entity.VehicleFacetsDTO.HistogramBucket;
+import com.autodealer.server.entity.VehicleFilter;
+import com.autodealer.server.entity.VehicleSort;
+import com.autodealer.server.repository.VehicleRepository;
+
+import jakarta.annotation.PostConstruct;
+
+// In-memory read model of the whole inventory. Each vehicle occupies a slot
+// in a set of primitive columns; string columns are dictionary encoded with
+// one bitset per value. Filters become bitset ANDs plus range scans over the
+// primitive arrays, so public reads never go through Hibernate or SQLite.
+@Component
+public class InventoryIndex {
+
+    private static final int INITIAL_CAPACITY = 256;
+    private static final int MAX_BUCKETS = 100;
+    private static final Comparator<FacetCount> FACET_ORDER = Comparator
+            .comparingInt(FacetCount::getCount).reversed()
+            .thenComparing(FacetCount::getValue);
+
+    @Autowired
+    private VehicleRepository vehicleRepository;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Slot columns
+    private Vehicle[] rows = new Vehicle[INITIAL_CAPACITY];
+    private long[] ids = new long[INITIAL_CAPACITY];
+    private int[] year = new int[INITIAL_CAPACITY];
+    private int[] mileage = new int[INITIAL_CAPACITY];
+    private double[] price = new double[INITIAL_CAPACITY];
+    private int[] make = new int[INITIAL_CAPACITY];
+    private int[] model = new int[INITIAL_CAPACITY];
+    private int[] status = new int[INITIAL_CAPACITY];
+    private int[] condition = new int[INITIAL_CAPACITY];
+    private int[] makeModel = new int[INITIAL_CAPACITY];
+    private long[] versions = new long[INITIAL_CAPACITY];
+
+    private final ValueDictionary makes = new ValueDictionary(v -> v.trim().toLowerCase(Locale.ROOT));
+    private final ValueDictionary models = new ValueDictionary(v -> v.trim().toLowerCase(Locale.ROOT));
+    private final ValueDictionary statuses = new ValueDictionary(v -> v.trim().toUpperCase(Locale.ROOT));
+    private final ValueDictionary conditions = new ValueDictionary(VehicleFilter::normalizeCondition);
+    private final ValueDictionary makeModels = new ValueDictionary(v -> v.toLowerCase(Locale.ROOT));
+
+    private final BitSet live = new BitSet();
+    private final Map<Long, Integer> slotById = new TreeMap<>();
+
+    // Bumped once per applied change; seeded from the clock at load so that
+    // versions keep increasing across restarts. Each vehicle records the
+    // inventory version that last touched it.
+    private volatile long version;
+
+    @PostConstruct
+    public void load() {
+        List<Vehicle> all = vehicleRepository.findAll();
+        lock.writeLock().lock();
+        try {
+            version = System.currentTimeMillis();
+            for (Vehicle vehicle : all) {
+                upsert(vehicle, version);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        System.out.println("Inventory index loaded " + all.size() + " vehicles");
+    }
+
+    // First, so listeners that read the index (the change feed) see the change
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onInventoryChange(InventoryChangeEvent event) {
+        lock.writeLock().lock();
+        try {
+            long next = version + 1;
+            for (Long id : event.getDeletedIds()) {
+                remove(id);
+            }
+            for (Vehicle vehicle : event.getUpserted()) {
+                upsert(vehicle, next);
+            }
+            version = next;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    // Version of one vehicle, or -1 if it is not in the inventory
+    public long getVersion(Long id) {
+        lock.readLock().lock();
+        try {
+            Integer slot = slotById.get(id);
+            return slot == null ? -1 : versions[slot];
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // All vehicles in id order, matching what findAll() used to return
+    public List<Vehicle> findAll() {
+        lock.readLock().lock();
+        try {
+            List<Vehicle> result = new ArrayList<>(slotById.size());
+            for (int slot : slotById.values()) {
+                result.add(rows[slot]);
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public Optional<Vehicle> findById(Long id) {
+        lock.readLock().lock();
+        try {
+            Integer slot = slotById.get(id);
+            return slot == null ? Optional.empty() : Optional.of(rows[slot]);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Ids of every vehicle matching the filter, ascending
+    public List<Long> findIds(VehicleFilter filter) {
+        lock.readLock().lock();
+        try {
+            BitSet matches = matching(filter);
+            List<Long> result = new ArrayList<>(matches.cardinality());
+            for (int slot = matches.nextSetBit(0); slot >= 0; slot = matches.nextSetBit(slot + 1)) {
+                result.add(ids[slot]);
+            }
+            result.sort(null);
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Returns up to `limit` vehicles matching the filter, in sort order,
+    // strictly after the cursor when one is given.
+    public List<Vehicle> query(VehicleFilter filter, VehicleSort sort, VehicleCursor after, int limit) {
+        lock.readLock().lock();
+        try {
+            BitSet matches = matching(filter);
+
+            // Bounded max-heap of slots: the root is the row that sorts last,
+            // so it is the one to evict when a better row turns up.
+            int[] heap = new int[limit];
+            int size = 0;
+            for (int slot = matches.nextSetBit(0); slot >= 0; slot = matches.nextSetBit(slot + 1)) {
+                if (after != null && !isAfter(slot, after, sort))
+                    continue;
+
+                if (size < limit) {
+                    heap[size] = slot;
+                    siftUp(heap, size++, sort);
+                } else if (limit > 0 && compare(slot, heap[0], sort) < 0) {
+                    heap[0] = slot;
+                    siftDown(heap, size, sort);
+                }
+            }
+
+            // Drain the heap from the back to get ascending sort order
+            Vehicle[] ordered = new Vehicle[size];
+            for (int i = size - 1; i >= 0; i--) {
+                ordered[i] = rows[heap[0]];
+                heap[0] = heap[i];
+                siftDown(heap, i, sort);
+            }
+            return Arrays.asList(ordered);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Facet counts and histograms for the filter bar. Each facet ignores its
+    // own filter (the make list still shows other makes while one is picked);
+    // histograms use the full filter. With nothing else filtered the counts
+    // come straight from the maintained per-value counters.
+    public VehicleFacetsDTO facets(VehicleFilter filter, double priceWidth, double yearWidth, double mileageWidth) {
+        lock.readLock().lock();
+        try {
+            BitSet matches = matching(filter);
+
+            VehicleFilter withoutMake = filter.copy();
+            withoutMake.setMake(null);
+            withoutMake.setModel(null);
+            VehicleFilter withoutModel = filter.copy();
+            withoutModel.setModel(null);
+            VehicleFilter withoutCondition = filter.copy();
+            withoutCondition.setCondition(null);
+            VehicleFilter withoutStatus = filter.copy();
+            withoutStatus.setStatus(null);
+
+            int[] makeCounts = countBy(makes, make, withoutMake);
+            int[] modelCounts = countBy(makeModels, makeModel, withoutModel);
+
+            List<FacetCount> makeFacets = new ArrayList<>();
+            for (int code = 0; code < makeCounts.length; code++) {
+                if (makeCounts[code] == 0)
+                    continue;
+
+                List<FacetCount> modelFacets = new ArrayList<>();
+                for (int child = 0; child < modelCounts.length; child++) {
+                    if (modelCounts[child] > 0 && makeModels.parent(child) == code)
+                        modelFacets.add(new FacetCount(makeModels.label(child), modelCounts[child], null));
+                }
+                modelFacets.sort(FACET_ORDER);
+                makeFacets.add(new FacetCount(makes.label(code), makeCounts[code], modelFacets));
+            }
+            makeFacets.sort(FACET_ORDER);
+
+            VehicleFacetsDTO result = new VehicleFacetsDTO();
+            result.setTotal(matches.cardinality());
+            result.setMakes(makeFacets);
+            result.setConditions(facetList(conditions, countBy(conditions, condition, withoutCondition)));
+            result.setStatuses(facetList(statuses, countBy(statuses, status, withoutStatus)));
+            result.setPrice(histogram(matches, slot -> price[slot], priceWidth));
+            result.setYear(histogram(matches, slot -> year[slot], yearWidth));
+            result.setMileage(histogram(matches, slot -> mileage[slot], mileageWidth));
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Per-code counts over the slots matching the filter
+    private int[] countBy(ValueDictionary dictionary, int[] column, VehicleFilter filter) {
+        if (filter.isEmpty())
+            return dictionary.counts();
+
+        int[] counts = new int[dictionary.size()];
+        BitSet matches = matching(filter);
+        for (int slot = matches.nextSetBit(0); slot >= 0; slot = matches.nextSetBit(slot + 1)) {
+            counts[column[slot]]++;
+        }
+        return counts;
+    }
+
+    private static List<FacetCount> facetList(ValueDictionary dictionary, int[] counts) {
+        List<FacetCount> result = new ArrayList<>();
+        for (int code = 0; code < counts.length; code++) {
+            if (counts[code] > 0)
+                result.add(new FacetCount(dictionary.label(code), counts[code], null));
+        }
+        result.sort(FACET_ORDER);
+        return result;
+    }
+
+    // Fixed-width buckets aligned to multiples of the width. A width that
+    // would need more than MAX_BUCKETS is widened to a multiple of itself, or
+    // to whole units when it is too small to divide the values by at all
+    // (1e-320). Empty when nothing matches.
+    private static List<HistogramBucket> histogram(BitSet matches, IntToDoubleFunction column, double width) {
+        if (matches.isEmpty())
+            return List.of();
+
+        double min = Double.POSITIVE_INFINITY;
+        double max = Double.NEGATIVE_INFINITY;
+        for (int slot = matches.nextSetBit(0); slot >= 0; slot = matches.nextSetBit(slot + 1)) {
+            double value = column.applyAsDouble(slot);
+            min = Math.min(min, value);
+            max = Math.max(max, value);
+        }
+
+        // Bucket counts are worked out in floating point before anything is
+        // allocated, so an extreme width cannot overflow the array size
+        double start = Math.floor(min / width) * width;
+        if (bucketCount(start, max, width) > MAX_BUCKETS) {
+            double span = max - min;
+            if (Double.isFinite(Math.max(Math.abs(min), Math.abs(max)) / width))
+                width *= Math.max(1, Math.ceil(span / width / (MAX_BUCKETS - 1)));
+            else
+                width = Math.max(1, Math.ceil(span / (MAX_BUCKETS - 1)));
+            start = Math.floor(min / width) * width;
+            while (bucketCount(start, max, width) > MAX_BUCKETS) {
+                width *= 2; // rounding left one bucket too many
+                start = Math.floor(min / width) * width;
+            }
+        }
+
+        int[] counts = new int[(int) bucketCount(start, max, width)];
+        for (int slot = matches.nextSetBit(0); slot >= 0; slot = matches.nextSetBit(slot + 1)) {
+            counts[(int) ((column.applyAsDouble(slot) - start) / width)]++;
+        }
+
+        List<HistogramBucket> buckets = new ArrayList<>(counts.length);
+        for (int i = 0; i < counts.length; i++) {
+            double from = start + i * width;
+            buckets.add(new HistogramBucket(from, from + width, counts[i]));
+        }
+        return buckets;
+    }
+
+    // Infinite when the width cannot divide the range
+    private static double bucketCount(double start, double max, double width) {
+        double count = Math.floor((max - start) / width) + 1;
+        return Double.isFinite(start) && Double.isFinite(count) ? count : Double.POSITIVE_INFINITY;
+    }
+
+    // Caller must hold the read lock. Returns a fresh bitset of matching slots.
+    private BitSet matching(VehicleFilter filter) {
+        BitSet result = (BitSet) live.clone();
+
+        if (!and(result, makes, filter.getMake())
+                || !and(result, models, filter.getModel())
+                || !and(result, statuses, filter.getStatus())
+                || !and(result, conditions, filter.getCondition())) {
+            result.clear();
+            return result;
+        }
+
+        boolean priceRange = filter.getMinPrice() != null || filter.getMaxPrice() != null;
+        boolean yearRange = filter.getMinYear() != null || filter.getMaxYear() != null;
+        boolean mileageRange = filter.getMinMileage() != null || filter.getMaxMileage() != null;
+        if (!priceRange && !yearRange && !mileageRange)
+            return result;
+
+        double minPrice = filter.getMinPrice() != null ? filter.getMinPrice() : Double.NEGATIVE_INFINITY;
+        double maxPrice = filter.getMaxPrice() != null ? filter.getMaxPrice() : Double.POSITIVE_INFINITY;
+        int minYear = filter.getMinYear() != null ? filter.getMinYear() : Integer.MIN_VALUE;
+        int maxYear = filter.getMaxYear() != null ? filter.getMaxYear() : Integer.MAX_VALUE;
+        int minMileage = filter.getMinMileage() != null ? filter.getMinMileage() : Integer.MIN_VALUE;
+        int maxMileage = filter.getMaxMileage() != null ? filter.getMaxMileage() : Integer.MAX_VALUE;
+
+        for (int slot = result.nextSetBit(0); slot >= 0; slot = result.nextSetBit(slot + 1)) {
+            if (price[slot] < minPrice || price[slot] > maxPrice
+                    || year[slot] < minYear || year[slot] > maxYear
+                    || mileage[slot] < minMileage || mileage[slot] > maxMileage) {
+                result.clear(slot);
+            }
+        }
+        return result;
+    }
+
+    // Narrows `result` to one dictionary value; false if the value is unknown
+    private static boolean and(BitSet result, ValueDictionary dictionary, String value) {
+        if (value == null || value.isBlank())
+            return true;
+
+        int code = dictionary.lookup(value);
+        if (code < 0)
+            return false;
+
+        result.and(dictionary.members(code));
+        return true;
+    }
+
+    // --- Writes (caller holds the write lock) ---
+
+    private void upsert(Vehicle vehicle, long changeVersion) {
+        Integer existing = slotById.get(vehicle.getId());
+        int slot;
+        if (existing != null) {
+            slot = existing;
+            clearBits(slot);
+        } else {
+            slot = live.nextClearBit(0);
+            ensureCapacity(slot + 1);
+            slotById.put(vehicle.getId(), slot);
+        }
+
+        rows[slot] = vehicle;
+        ids[slot] = vehicle.getId();
+        versions[slot] = changeVersion;
+        year[slot] = vehicle.getYear() != null ? vehicle.getYear() : 0;
+        mileage[slot] = vehicle.getMileage() != null ? vehicle.getMileage() : 0;
+        price[slot] = vehicle.getPrice() != null ? vehicle.getPrice() : 0;
+        make[slot] = makes.encode(vehicle.getMake());
+        model[slot] = models.encode(vehicle.getModel());
+        status[slot] = statuses.encode(vehicle.getStatus());
+        condition[slot] = conditions.encode(vehicle.getCondition());
+
+        makeModel[slot] = makeModels.encode(make[slot], vehicle.getModel());
+
+        makes.add(make[slot], slot);
+        models.add(model[slot], slot);
+        statuses.add(status[slot], slot);
+        conditions.add(condition[slot], slot);
+        makeModels.add(makeModel[slot], slot);
+        live.set(slot);
+    }
+
+    private void remove(Long id) {
+        Integer slot = slotById.remove(id);
+        if (slot == null)
+            return;
+
+        clearBits(slot);
+        live.clear(slot);
+        rows[slot] = null;
+    }
+
+    private void clearBits(int slot) {
+        makes.remove(make[slot], slot);
+        models.remove(model[slot], slot);
+        statuses.remove(status[slot], slot);
+        conditions.remove(condition[slot], slot);
+        makeModels.remove(makeModel[slot], slot);
+    }
+
+    private void ensureCapacity(int needed) {
+        if (needed <= rows.length)
+            return;
+
+        int capacity = Math.max(needed, rows.length * 2);
+        rows = Arrays.copyOf(rows, capacity);
+        ids = Arrays.copyOf(ids, capacity);
+        year = Arrays.copyOf(year, capacity);
+        mileage = Arrays.copyOf(mileage, capacity);
+        price = Arrays.copyOf(price, capacity);
+        make = Arrays.copyOf(make, capacity);
+        model = Arrays.copyOf(model, capacity);
+        status = Arrays.copyOf(status, capacity);
+        condition = Arrays.copyOf(condition, capacity);
+        makeModel = Arrays.copyOf(makeModel, capacity);
+        versions = Arrays.copyOf(versions, capacity);
+    }
+
+    // --- Ordering ---
+
+    // Negative when slot a sorts before slot b
+    private int compare(int a, int b, VehicleSort sort) {
+        int byKey = switch (sort.getProperty()) {
+            case "year" -> Integer.compare(year[a], year[b]);
+            case "price" -> Double.compare(price[a], price[b]);
+            case "mileage" -> Integer.compare(mileage[a], mileage[b]);
+            default -> 0;
+        };
+        if (byKey == 0)
+            byKey = Long.compare(ids[a], ids[b]);
+        return sort.isDescending() ? -byKey : byKey;
+    }
+
+    private boolean isAfter(int slot, VehicleCursor cursor, VehicleSort sort) {
+        int byKey = switch (sort.getProperty()) {
+            case "year" -> Integer.compare(year[slot], cursor.getKey().intValue());
+            case "price" -> Double.compare(price[slot], cursor.getKey().doubleValue());
+            case "mileage" -> Integer.compare(mileage[slot], cursor.getKey().intValue());
+            default -> 0;
+        };
+        if (byKey == 0)
+            byKey = Long.compare(ids[slot], cursor.getId());
+        return sort.isDescending() ? byKey < 0 : byKey > 0;
+    }
+
+    private void siftUp(int[] heap, int index, VehicleSort sort) {
+        int slot = heap[index];
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (compare(slot, heap[parent], sort) <= 0)
+                break;
+            heap[index] = heap[parent];
+            index = parent;
+        }
+        heap[index] = slot;
+    }
+
+    private void siftDown(int[] heap, int size, VehicleSort sort) {
+        if (size == 0)
+            return;
+
+        int slot = heap[0];
+        int index = 0;
+        while (true) {
+            int child = 2 * index + 1;
+            if (child >= size)
+                break;
+            if (child + 1 < size && compare(heap[child + 1], heap[child], sort) > 0)
+                child++;
+            if (compare(slot, heap[child], sort) >= 0)
+                break;
+            heap[index] = heap[child];
+            index = child;
+        }
+        heap[index] = slot;
+    }
+}
@@ -0,0 +1,365 @@
+package com.autodealer.server.inventory;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.autodealer.server.Util.MakeNormalizer;
+import com.autodealer.server.config.MakeAliasesReloadedEvent;
+import com.autodealer.server.entity.SearchResultDTO;
+import com.autodealer.server.entity.Vehicle;
+
+import jakarta.annotation.PostConstruct;
+
+// Autocomplete index for the search bar. Each vehicle is indexed as the text
+// "year make model"; queries of three or more characters intersect trigram
+// posting lists and then confirm the substring, shorter queries use a sorted
+// token map for prefix lookups. Brands are matched against the live makes.
+// Results rank brands before vehicles and prefix matches before infix ones.
+// A query that matches nothing is corrected against the make aliases and the
+// indexed make/model words (bounded edit distance) and searched again, so
+// "porche" and "vw" find Porsche and Volkswagen.
+@Component
+public class SearchIndex {
+
+    private static final int MIN_GRAM_QUERY = 3;
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    @Autowired
+    private InventoryIndex inventoryIndex;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<Long, Vehicle> vehicles = new HashMap<>();
+    private final Map<Long, String> texts = new HashMap<>();
+    private final Map<String, Set<Long>> trigrams = new HashMap<>();
+    private final TreeMap<String, Set<Long>> tokens = new TreeMap<>();
+    private final TreeMap<String, Brand> brands = new TreeMap<>();
+    private FuzzyMatcher fuzzy = new FuzzyMatcher();
+
+    // Changes whenever the alias dictionary is reloaded, which changes
+    // search results without touching the inventory. Starts from the clock
+    // like the inventory version, so it does not repeat across restarts.
+    private volatile long aliasGeneration;
+
+    private static final class Brand {
+        final String label;
+        int count;
+
+        Brand(String label) {
+            this.label = label;
+        }
+    }
+
+    @PostConstruct
+    public void load() {
+        lock.writeLock().lock();
+        try {
+            for (Vehicle vehicle : inventoryIndex.findAll()) {
+                add(vehicle);
+            }
+            rebuildFuzzy(MakeNormalizer.aliases());
+            aliasGeneration = System.currentTimeMillis();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @EventListener
+    public void onAliasesReloaded(MakeAliasesReloadedEvent event) {
+        lock.writeLock().lock();
+        try {
+            rebuildFuzzy(event.getAliases().aliases());
+            aliasGeneration++;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onInventoryChange(InventoryChangeEvent event) {
+        lock.writeLock().lock();
+        try {
+            for (Long id : event.getDeletedIds()) {
+                remove(id);
+            }
+            for (Vehicle vehicle : event.getUpserted()) {
+                remove(vehicle.getId());
+                add(vehicle);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public long getAliasGeneration() {
+        return aliasGeneration;
+    }
+
+    public List<SearchResultDTO> search(String query, int limit) {
+        String q = normalize(query);
+        if (q.isEmpty())
+            return new ArrayList<>();
+
+        lock.readLock().lock();
+        try {
+            List<SearchResultDTO> results = collect(q, limit);
+            if (results.isEmpty()) {
+                String corrected = correct(q);
+                if (corrected != null)
+                    results = collect(corrected, limit);
+            }
+            return results;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Caller holds the read lock
+    private List<SearchResultDTO> collect(String q, int limit) {
+        List<SearchResultDTO> results = new ArrayList<>();
+
+        // 1. Brands, prefix matches first
+        List<Brand> prefixBrands = new ArrayList<>();
+        List<Brand> infixBrands = new ArrayList<>();
+        for (Map.Entry<String, Brand> entry : brands.entrySet()) {
+            if (entry.getKey().startsWith(q))
+                prefixBrands.add(entry.getValue());
+            else if (q.length() >= MIN_GRAM_QUERY && entry.getKey().contains(q))
+                infixBrands.add(entry.getValue());
+        }
+        for (Brand brand : prefixBrands) {
+            results.add(new SearchResultDTO("brand", Map.of("make", brand.label)));
+        }
+        for (Brand brand : infixBrands) {
+            results.add(new SearchResultDTO("brand", Map.of("make", brand.label)));
+        }
+
+        // 2. Vehicles, ranked by match position then newest first. Each match
+        // is ranked once and only the best `limit` are kept.
+        TopMatches top = new TopMatches(limit);
+        if (q.length() < MIN_GRAM_QUERY) {
+            for (Long id : prefixMatches(q)) {
+                String text = texts.get(id);
+                top.offer(id, rank(text, text.indexOf(q)));
+            }
+        } else {
+            for (Long id : gramCandidates(q)) {
+                String text = texts.get(id);
+                int at = text.indexOf(q);
+                if (at >= 0)
+                    top.offer(id, rank(text, at));
+            }
+        }
+        for (long id : top.drain()) {
+            results.add(new SearchResultDTO("vehicle", vehicles.get(id)));
+        }
+        return results;
+    }
+
+    // Bounded max-heap of (rank, id) packed into one long so that a smaller
+    // key is a better match: the root is the worst match kept, the one to
+    // evict when a better one turns up
+    private static final class TopMatches {
+        private static final long ID_MASK = (1L << 56) - 1;
+
+        private final long[] heap;
+        private int size;
+
+        TopMatches(int limit) {
+            heap = new long[Math.max(0, limit)];
+        }
+
+        void offer(long id, int rank) {
+            long key = ((long) rank << 56) | (ID_MASK - id); // higher ids (newer) first
+            if (size < heap.length) {
+                heap[size] = key;
+                siftUp(size++);
+            } else if (size > 0 && key < heap[0]) {
+                heap[0] = key;
+                siftDown(size);
+            }
+        }
+
+        // Ids, best match first
+        long[] drain() {
+            long[] ids = new long[size];
+            for (int i = size - 1; i >= 0; i--) {
+                ids[i] = ID_MASK - (heap[0] & ID_MASK);
+                heap[0] = heap[i];
+                siftDown(i);
+            }
+            return ids;
+        }
+
+        private void siftUp(int index) {
+            long key = heap[index];
+            while (index > 0) {
+                int parent = (index - 1) >>> 1;
+                if (key <= heap[parent])
+                    break;
+                heap[index] = heap[parent];
+                index = parent;
+            }
+            heap[index] = key;
+        }
+
+        private void siftDown(int size) {
+            if (size == 0)
+                return;
+            long key = heap[0];
+            int index = 0;
+            while (true) {
+                int child = 2 * index + 1;
+                if (child >= size)
+                    break;
+                if (child + 1 < size && heap[child + 1] > heap[child])
+                    child++;
+                if (key >= heap[child])
+                    break;
+                heap[index] = heap[child];
+                index = child;
+            }
+            heap[index] = key;
+        }
+    }
+
+    // The query rewritten with known spellings, or null if nothing changed.
+    // The whole query is tried first so multi-word aliases ("mercedes benz")
+    // resolve, then each word on its own; years are left alone.
+    private String correct(String q) {
+        String whole = fuzzy.correct(q);
+        if (whole != null)
+            return whole.equals(q) ? null : whole;
+
+        String[] words = q.split(" ");
+        boolean changed = false;
+        for (int i = 0; i < words.length; i++) {
+            if (words[i].chars().allMatch(Character::isDigit))
+                continue;
+            String word = fuzzy.correct(words[i]);
+            if (word != null && !word.equals(words[i])) {
+                words[i] = word;
+                changed = true;
+            }
+        }
+        return changed ? String.join(" ", words) : null;
+    }
+
+    // Vehicles with a token starting with q
+    private Set<Long> prefixMatches(String q) {
+        Set<Long> result = new HashSet<>();
+        for (Set<Long> ids : tokens.subMap(q, true, q + Character.MAX_VALUE, false).values()) {
+            result.addAll(ids);
+        }
+        return result;
+    }
+
+    // Vehicles that may contain q: the postings of its rarest trigram (empty
+    // when one of its grams occurs nowhere). The caller confirms the substring.
+    private Set<Long> gramCandidates(String q) {
+        Set<Long> rarest = null;
+        for (int i = 0; i + 3 <= q.length(); i++) {
+            Set<Long> ids = trigrams.get(q.substring(i, i + 3));
+            if (ids == null)
+                return Set.of();
+            if (rarest == null || ids.size() < rarest.size())
+                rarest = ids;
+        }
+        return rarest;
+    }
+
+    // For a match at `at`: 0 when the text starts with it, 1 when a word
+    // does, 2 for an infix match
+    private static int rank(String text, int at) {
+        if (at == 0)
+            return 0;
+        return at > 0 && text.charAt(at - 1) == ' ' ? 1 : 2;
+    }
+
+    // --- Writes (caller holds the write lock) ---
+
+    private void add(Vehicle vehicle) {
+        Long id = vehicle.getId();
+        String text = normalize(vehicle.getYear() + " " + vehicle.getMake() + " " + vehicle.getModel());
+        vehicles.put(id, vehicle);
+        texts.put(id, text);
+
+        for (int i = 0; i + 3 <= text.length(); i++) {
+            trigrams.computeIfAbsent(text.substring(i, i + 3), k -> new HashSet<>()).add(id);
+        }
+        for (String token : text.split(" ")) {
+            tokens.computeIfAbsent(token, k -> new HashSet<>()).add(id);
+        }
+        for (String word : words(vehicle)) {
+            fuzzy.addWord(word);
+        }
+
+        String makeKey = normalize(vehicle.getMake());
+        brands.computeIfAbsent(makeKey, k -> new Brand(vehicle.getMake().trim())).count++;
+    }
+
+    private void rebuildFuzzy(Map<String, String> aliases) {
+        fuzzy = new FuzzyMatcher();
+        for (Map.Entry<String, String> alias : aliases.entrySet()) {
+            fuzzy.addTerm(normalize(alias.getKey()), normalize(alias.getValue()));
+        }
+        for (Vehicle vehicle : vehicles.values()) {
+            for (String word : words(vehicle)) {
+                fuzzy.addWord(word);
+            }
+        }
+    }
+
+    private void remove(Long id) {
+        Vehicle vehicle = vehicles.remove(id);
+        String text = texts.remove(id);
+        if (vehicle == null)
+            return;
+
+        for (int i = 0; i + 3 <= text.length(); i++) {
+            removePosting(trigrams, text.substring(i, i + 3), id);
+        }
+        for (String token : text.split(" ")) {
+            removePosting(tokens, token, id);
+        }
+        for (String word : words(vehicle)) {
+            fuzzy.removeWord(word);
+        }
+
+        String makeKey = normalize(vehicle.getMake());
+        Brand brand = brands.get(makeKey);
+        if (brand != null && --brand.count == 0)
+            brands.remove(makeKey);
+    }
+
+    // Make and model words fed to the fuzzy matcher
+    private static String[] words(Vehicle vehicle) {
+        return normalize(vehicle.getMake() + " " + vehicle.getModel()).split(" ");
+    }
+
+    private static void removePosting(Map<String, Set<Long>> postings, String key, Long id) {
+        Set<Long> ids = postings.get(key);
+        if (ids != null && ids.remove(id) && ids.isEmpty())
+            postings.remove(key);
+    }
+
+    // Lower case with runs of whitespace collapsed to one space
+    private static String normalize(String value) {
+        if (value == null)
+            return "";
+        return WHITESPACE.matcher(value.trim().toLowerCase(Locale.ROOT)).replaceAll(" ");
+    }
+}
@@ -0,0 +1,99 @@
+package com.autodealer.server.inventory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.UnaryOperator;
+
+// Dictionary encoding for a low-cardinality string column. Each distinct
+// value gets a small int code, a bitset of the slots holding it and a live
+// count kept up to date on every add/remove, so unfiltered facet counts are
+// read straight off the counters. Codes are never reused, so an emptied
+// value simply keeps an empty bitset and a zero count.
+class ValueDictionary {
+
+    private final UnaryOperator<String> keyFunction;
+    private final Map<String, Integer> codes = new HashMap<>();
+    private final List<String> labels = new ArrayList<>();
+    private final List<BitSet> members = new ArrayList<>();
+    private int[] parents = new int[16];
+    private int[] counts = new int[16];
+
+    ValueDictionary(UnaryOperator<String> keyFunction) {
+        this.keyFunction = keyFunction;
+    }
+
+    int encode(String value) {
+        return encode(-1, value);
+    }
+
+    // Encodes a value nested under a parent code (e.g. a model within a make);
+    // the same value under two parents gets two codes.
+    int encode(int parent, String value) {
+        String label = value == null ? "" : value.trim();
+        String key = keyFunction.apply(label);
+        if (parent >= 0)
+            key = parent + ":" + key;
+
+        Integer code = codes.get(key);
+        if (code != null)
+            return code;
+
+        int next = labels.size();
+        codes.put(key, next);
+        labels.add(label);
+        members.add(new BitSet());
+        if (next == counts.length) {
+            counts = Arrays.copyOf(counts, next * 2);
+            parents = Arrays.copyOf(parents, next * 2);
+        }
+        parents[next] = parent;
+        return next;
+    }
+
+    // -1 when the value has never been seen
+    int lookup(String value) {
+        Integer code = codes.get(keyFunction.apply(value));
+        return code == null ? -1 : code;
+    }
+
+    void add(int code, int slot) {
+        BitSet bits = members.get(code);
+        if (!bits.get(slot)) {
+            bits.set(slot);
+            counts[code]++;
+        }
+    }
+
+    void remove(int code, int slot) {
+        BitSet bits = members.get(code);
+        if (bits.get(slot)) {
+            bits.clear(slot);
+            counts[code]--;
+        }
+    }
+
+    BitSet members(int code) {
+        return members.get(code);
+    }
+
+    String label(int code) {
+        return labels.get(code);
+    }
+
+    int parent(int code) {
+        return parents[code];
+    }
+
+    // Copy of the maintained per-code counts
+    int[] counts() {
+        return Arrays.copyOf(counts, labels.size());
+    }
+
+    int size() {
+        return labels.size();
+    }
+}
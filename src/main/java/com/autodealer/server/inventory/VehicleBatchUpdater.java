@@ -0,0 +1,113 @@
+package com.autodealer.server.inventory;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.autodealer.server.entity.Vehicle;
+import com.autodealer.server.entity.VehicleBatchRequest;
+import com.autodealer.server.repository.VehicleRepository;
+
+// Applies a VehicleBatchRequest with set-based UPDATE / DELETE statements in
+// a single transaction instead of a findById + save() per vehicle. Ids are
+// sent in slices so a large filter stays under SQLite's bound-parameter limit.
+@Component
+public class VehicleBatchUpdater {
+
+    private static final int SLICE_SIZE = 1000;
+
+    @Autowired
+    private VehicleRepository vehicleRepository;
+
+    @Autowired
+    private InventoryIndex inventoryIndex;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    // Affected ids, plus the image files of deleted vehicles for the caller
+    // to remove once the transaction has committed
+    public record Result(List<Long> ids, List<String> deletedImages) {
+    }
+
+    @Transactional
+    public Result apply(VehicleBatchRequest request) {
+        validate(request);
+
+        List<Long> targets = request.getIds() != null ? request.getIds() : inventoryIndex.findIds(request.getFilter());
+        List<Long> ids = new ArrayList<>();
+        for (List<Long> slice : slices(targets)) {
+            ids.addAll(vehicleRepository.findExistingIds(slice));
+        }
+        if (ids.isEmpty())
+            return new Result(ids, List.of());
+
+        List<List<Long>> slices = slices(ids);
+        if (request.isDelete()) {
+            List<String> images = new ArrayList<>();
+            for (List<Long> slice : slices) {
+                images.addAll(vehicleRepository.findImageFilenames(slice));
+                vehicleRepository.deleteByIds(slice);
+            }
+            eventPublisher.publishEvent(new InventoryChangeEvent(List.of(), ids));
+            return new Result(ids, images);
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        String status = request.getStatus() != null ? request.getStatus().trim().toUpperCase(Locale.ROOT) : null;
+        for (List<Long> slice : slices) {
+            if (status != null)
+                vehicleRepository.updateStatus(slice, status, now);
+            if (request.getPrice() != null)
+                vehicleRepository.updatePrice(slice, request.getPrice(), now);
+            if (request.getPriceChangePercent() != null)
+                vehicleRepository.scalePrice(slice, 1 + request.getPriceChangePercent() / 100, now);
+        }
+
+        // Fresh copies for the read models; the updates cleared the session
+        List<Vehicle> updated = new ArrayList<>(ids.size());
+        for (List<Long> slice : slices) {
+            updated.addAll(vehicleRepository.findAllById(slice));
+        }
+        eventPublisher.publishEvent(new InventoryChangeEvent(updated, List.of()));
+        return new Result(ids, List.of());
+    }
+
+    private static void validate(VehicleBatchRequest request) {
+        if ((request.getIds() == null) == (request.getFilter() == null))
+            throw new IllegalArgumentException("Give either ids or filter");
+        // An empty filter matches every vehicle
+        if (request.getFilter() != null && !request.getFilter().unknownFields().isEmpty())
+            throw new IllegalArgumentException("Unknown filter fields: " + request.getFilter().unknownFields());
+        if (request.getFilter() != null && request.getFilter().isEmpty())
+            throw new IllegalArgumentException("filter must set at least one field; use ids to target vehicles");
+        boolean update = request.getStatus() != null || request.getPrice() != null
+                || request.getPriceChangePercent() != null;
+        if (request.isDelete() == update)
+            throw new IllegalArgumentException("Give either delete or at least one of status, price, priceChangePercent");
+        if (request.getPrice() != null && request.getPriceChangePercent() != null)
+            throw new IllegalArgumentException("Give price or priceChangePercent, not both");
+        if (request.getStatus() != null && request.getStatus().isBlank())
+            throw new IllegalArgumentException("status must not be blank");
+        // NaN and Infinity (JSON "NaN", 1e400) pass the comparisons below
+        if (request.getPrice() != null && !(Double.isFinite(request.getPrice()) && request.getPrice() >= 0))
+            throw new IllegalArgumentException("price must be a finite number, not negative");
+        if (request.getPriceChangePercent() != null
+                && !(Double.isFinite(request.getPriceChangePercent()) && request.getPriceChangePercent() > -100))
+            throw new IllegalArgumentException("priceChangePercent must be a finite number above -100");
+    }
+
+    private static List<List<Long>> slices(List<Long> ids) {
+        List<List<Long>> slices = new ArrayList<>();
+        for (int from = 0; from < ids.size(); from += SLICE_SIZE) {
+            slices.add(ids.subList(from, Math.min(from + SLICE_SIZE, ids.size())));
+        }
+        return slices;
+    }
+}
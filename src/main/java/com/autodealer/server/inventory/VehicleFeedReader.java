@@ -0,0 +1,158 @@
+package com.autodealer.server.inventory;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+// Reads an inventory feed one row at a time as field name -> text value,
+// without holding more than the current row. CSV needs a header row and
+// follows RFC 4180 (quoted fields may contain commas, "" and line breaks).
+// NDJSON has one object per line; nested values come back as JSON text.
+abstract class VehicleFeedReader {
+
+    protected final BufferedReader reader;
+    protected long line; // line the current row starts on
+
+    private VehicleFeedReader(Reader reader) {
+        this.reader = reader instanceof BufferedReader buffered ? buffered : new BufferedReader(reader);
+    }
+
+    static VehicleFeedReader csv(Reader reader) {
+        return new Csv(reader);
+    }
+
+    static VehicleFeedReader ndjson(Reader reader, ObjectMapper objectMapper) {
+        return new NdJson(reader, objectMapper);
+    }
+
+    // Next row, or null at the end of the feed. A row that cannot be read
+    // throws IllegalArgumentException; reading continues with the next one.
+    // IOException means the feed itself is broken at line() and nothing
+    // after it can be read.
+    abstract Map<String, String> next() throws IOException;
+
+    long line() {
+        return line;
+    }
+
+    private static final class Csv extends VehicleFeedReader {
+        private List<String> header;
+        private long nextLine = 1;
+
+        Csv(Reader reader) {
+            super(reader);
+        }
+
+        @Override
+        Map<String, String> next() throws IOException {
+            if (header == null) {
+                header = record();
+                if (header == null)
+                    return null;
+                if (header.get(0).startsWith("\uFEFF")) // byte order mark from spreadsheet exports
+                    header.set(0, header.get(0).substring(1));
+            }
+
+            List<String> fields;
+            do {
+                fields = record();
+                if (fields == null)
+                    return null;
+            } while (fields.size() == 1 && fields.get(0).isBlank());
+
+            if (fields.size() != header.size())
+                throw new IllegalArgumentException(
+                        "Expected " + header.size() + " fields, found " + fields.size());
+
+            Map<String, String> row = new LinkedHashMap<>();
+            for (int i = 0; i < fields.size(); i++) {
+                row.put(header.get(i).trim(), fields.get(i));
+            }
+            return row;
+        }
+
+        private List<String> record() throws IOException {
+            int c = reader.read();
+            if (c == -1)
+                return null;
+
+            line = nextLine;
+            List<String> fields = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            while (true) {
+                if (quoted) {
+                    if (c == -1)
+                        throw new IOException("unterminated quoted field");
+                    if (c == '"') {
+                        c = reader.read();
+                        if (c != '"') {
+                            quoted = false;
+                            continue;
+                        }
+                    } else if (c == '\n') {
+                        nextLine++;
+                    }
+                    field.append((char) c);
+                } else if (c == '"' && field.length() == 0) {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else if (c == '\n' || c == -1) {
+                    nextLine++;
+                    fields.add(field.toString());
+                    return fields;
+                } else if (c != '\r') {
+                    field.append((char) c);
+                }
+                c = reader.read();
+            }
+        }
+    }
+
+    private static final class NdJson extends VehicleFeedReader {
+        private final ObjectMapper objectMapper;
+
+        NdJson(Reader reader, ObjectMapper objectMapper) {
+            super(reader);
+            this.objectMapper = objectMapper;
+        }
+
+        @Override
+        Map<String, String> next() throws IOException {
+            String text;
+            do {
+                text = reader.readLine();
+                if (text == null)
+                    return null;
+                line++;
+            } while (text.isBlank());
+
+            JsonNode node;
+            try {
+                node = objectMapper.readTree(text);
+            } catch (JsonProcessingException e) {
+                throw new IllegalArgumentException("Invalid JSON: " + e.getOriginalMessage());
+            }
+            if (!node.isObject())
+                throw new IllegalArgumentException("Expected a JSON object");
+
+            Map<String, String> row = new LinkedHashMap<>();
+            for (Map.Entry<String, JsonNode> field : node.properties()) {
+                JsonNode value = field.getValue();
+                if (!value.isNull())
+                    row.put(field.getKey(), value.isValueNode() ? value.asText() : value.toString());
+            }
+            return row;
+        }
+    }
+}
@@ -0,0 +1,199 @@
+package com.autodealer.server.inventory;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.time.Year;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import com.autodealer.server.Util.MakeNormalizer;
+import com.autodealer.server.entity.ImportReportDTO;
+import com.autodealer.server.entity.Vehicle;
+import com.autodealer.server.repository.VehicleImportRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+// Imports a CSV or NDJSON feed as it streams in. Each row is normalized the
+// same way as a single create (make aliases, capitalized model) and checked;
+// bad rows go into the report while the rest are written in chunks. Fields
+// other than the vehicle columns are kept as detailsJson entries.
+@Component
+public class VehicleImporter {
+
+    public static final int CHUNK_SIZE = 1000;
+    private static final Pattern SEPARATORS = Pattern.compile("[\\s_\\-]");
+
+    // Plausible values; anything outside is a bad row rather than a listing
+    private static final int MIN_YEAR = 1886;
+    private static final double MAX_PRICE = 100_000_000;
+    private static final int MAX_MILEAGE = 10_000_000;
+
+    @Autowired
+    private VehicleImportRepository vehicleImportRepository;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    public ImportReportDTO importCsv(Reader reader) {
+        return importFeed(VehicleFeedReader.csv(reader));
+    }
+
+    public ImportReportDTO importNdJson(Reader reader) {
+        return importFeed(VehicleFeedReader.ndjson(reader, objectMapper));
+    }
+
+    // Chunks are committed as they fill, so a feed that breaks part way
+    // (a malformed quote, the client going away) is not an error response:
+    // the report says how many vehicles were stored and where reading
+    // stopped. Every row before that line has been imported or rejected.
+    private ImportReportDTO importFeed(VehicleFeedReader feed) {
+        ImportReportDTO report = new ImportReportDTO();
+        List<Vehicle> chunk = new ArrayList<>(CHUNK_SIZE);
+        while (true) {
+            Vehicle vehicle;
+            try {
+                Map<String, String> row = feed.next();
+                if (row == null)
+                    break;
+                vehicle = toVehicle(row);
+            } catch (IllegalArgumentException e) {
+                report.addError(feed.line(), e.getMessage());
+                continue;
+            } catch (IOException e) {
+                report.stop(feed.line(), String.valueOf(e.getMessage()));
+                break;
+            }
+
+            chunk.add(vehicle);
+            if (chunk.size() == CHUNK_SIZE) {
+                flush(chunk, report);
+            }
+        }
+        flush(chunk, report);
+        return report;
+    }
+
+    private void flush(List<Vehicle> chunk, ImportReportDTO report) {
+        if (chunk.isEmpty())
+            return;
+        List<Vehicle> saved = vehicleImportRepository.insertAll(chunk);
+        eventPublisher.publishEvent(new InventoryChangeEvent(saved, List.of()));
+        report.addImported(saved.size());
+        chunk.clear();
+    }
+
+    private Vehicle toVehicle(Map<String, String> row) {
+        Vehicle vehicle = new Vehicle();
+        ObjectNode details = objectMapper.createObjectNode();
+        ObjectNode extra = objectMapper.createObjectNode();
+
+        for (Map.Entry<String, String> field : row.entrySet()) {
+            String value = field.getValue() == null ? "" : field.getValue().trim();
+            switch (columnName(field.getKey())) {
+                case "make" -> vehicle.setMake(MakeNormalizer.normalize(required("make", value)));
+                case "model" -> vehicle.setModel(MakeNormalizer.capitalizeWords(required("model", value)));
+                case "year" -> vehicle.setYear(parseInt("year", value));
+                case "price" -> vehicle.setPrice(parseDouble("price", value));
+                case "mileage" -> vehicle.setMileage(parseInt("mileage", value));
+                case "status" -> vehicle.setStatus(value.isEmpty() ? null : value.toUpperCase(Locale.ROOT));
+                case "condition" -> vehicle.setCondition(required("condition", value));
+                case "detailsjson", "details" -> details = parseDetails(value);
+                default -> {
+                    if (!value.isEmpty())
+                        extra.put(field.getKey().trim(), value);
+                }
+            }
+        }
+
+        if (vehicle.getMake() == null)
+            throw new IllegalArgumentException("make is required");
+        if (vehicle.getModel() == null)
+            throw new IllegalArgumentException("model is required");
+        if (vehicle.getYear() == null)
+            throw new IllegalArgumentException("year is required");
+        if (vehicle.getPrice() == null)
+            throw new IllegalArgumentException("price is required");
+        if (vehicle.getMileage() == null)
+            throw new IllegalArgumentException("mileage is required");
+        if (vehicle.getCondition() == null)
+            throw new IllegalArgumentException("condition is required");
+        if (vehicle.getStatus() == null)
+            vehicle.setStatus("AVAILABLE");
+
+        checkRange("year", vehicle.getYear(), MIN_YEAR, Year.now().getValue() + 1);
+        checkRange("price", vehicle.getPrice(), 0, MAX_PRICE);
+        checkRange("mileage", vehicle.getMileage(), 0, MAX_MILEAGE);
+
+        details.setAll(extra);
+        vehicle.setDetailsJson(details.toString());
+        return vehicle;
+    }
+
+    // "Details JSON", "details_json" and "detailsJson" all name the same column
+    private static String columnName(String header) {
+        return SEPARATORS.matcher(header.toLowerCase(Locale.ROOT)).replaceAll("");
+    }
+
+    private static String required(String name, String value) {
+        if (value.isEmpty())
+            throw new IllegalArgumentException(name + " is required");
+        return value;
+    }
+
+    // Whole numbers only: "2019.5" is a typo, not a year to truncate
+    private static int parseInt(String name, String value) {
+        try {
+            return Integer.parseInt(required(name, value).replace(",", ""));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(name + " is not a whole number: " + value);
+        }
+    }
+
+    // Double.parseDouble also accepts "NaN", "Infinity" and overflows to them
+    private static double parseDouble(String name, String value) {
+        double number;
+        try {
+            number = Double.parseDouble(required(name, value).replace(",", "").replace("$", ""));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(name + " is not a number: " + value);
+        }
+        if (!Double.isFinite(number))
+            throw new IllegalArgumentException(name + " is not a finite number: " + value);
+        return number;
+    }
+
+    private static void checkRange(String name, double value, double min, double max) {
+        if (value < min || value > max)
+            throw new IllegalArgumentException(name + " must be between " + format(min) + " and " + format(max)
+                    + ": " + format(value));
+    }
+
+    private static String format(double value) {
+        return value == Math.rint(value) ? Long.toString((long) value) : Double.toString(value);
+    }
+
+    private ObjectNode parseDetails(String value) {
+        if (value.isEmpty())
+            return objectMapper.createObjectNode();
+        try {
+            JsonNode node = objectMapper.readTree(value);
+            if (node instanceof ObjectNode object)
+                return object;
+        } catch (JsonProcessingException e) {
+            // reported below
+        }
+        throw new IllegalArgumentException("detailsJson is not a JSON object");
+    }
+}
@@ -0,0 +1,134 @@
+package com.autodealer.server.inventory;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.autodealer.server.entity.Vehicle;
+import com.autodealer.server.entity.VehicleCard;
+import com.autodealer.server.entity.VehiclePageDTO;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+// Serialized UTF-8 JSON for each vehicle, produced once by the same
+// ObjectMapper Spring MVC uses. List responses are assembled by copying the
+// cached fragments into one exactly sized array, so Jackson only runs again
+// after a write replaces the vehicle. Each vehicle has a full fragment and a
+// lighter card fragment without detailsJson.
+@Component
+public class VehicleJsonCache {
+
+    private static final byte[] NONE = new byte[0];
+    private static final byte[] PAGE_START = "{\"items\":".getBytes(StandardCharsets.UTF_8);
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final ConcurrentHashMap<Long, Fragment> fragments = new ConcurrentHashMap<>();
+
+    // A fragment is only valid for the exact instance it was serialized
+    // from; the index swaps in a new instance on every write.
+    private static final class Fragment {
+        final Vehicle source;
+        volatile byte[] json;
+        volatile byte[] card;
+
+        Fragment(Vehicle source) {
+            this.source = source;
+        }
+    }
+
+    public byte[] get(Vehicle vehicle) {
+        Fragment fragment = fragmentFor(vehicle);
+        byte[] json = fragment.json;
+        if (json == null) {
+            json = serialize(vehicle, vehicle);
+            fragment.json = json;
+        }
+        return json;
+    }
+
+    public byte[] getCard(Vehicle vehicle) {
+        Fragment fragment = fragmentFor(vehicle);
+        byte[] card = fragment.card;
+        if (card == null) {
+            card = serialize(vehicle, VehicleCard.of(vehicle));
+            fragment.card = card;
+        }
+        return card;
+    }
+
+    public byte[] array(List<Vehicle> vehicles, boolean cards) {
+        return join(NONE, vehicles, cards, NONE);
+    }
+
+    // Same shape Jackson produces for VehiclePageDTO
+    public byte[] page(VehiclePageDTO<Vehicle> page, boolean cards) {
+        String cursor;
+        try {
+            cursor = objectMapper.writeValueAsString(page.getNextCursor());
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize cursor", e);
+        }
+        byte[] end = (",\"nextCursor\":" + cursor + ",\"hasMore\":" + page.isHasMore() + "}")
+                .getBytes(StandardCharsets.UTF_8);
+        return join(PAGE_START, page.getItems(), cards, end);
+    }
+
+    // prefix + [fragment,fragment,...] + suffix, copied once into an array of
+    // the exact length
+    private byte[] join(byte[] prefix, List<Vehicle> vehicles, boolean cards, byte[] suffix) {
+        byte[][] parts = new byte[vehicles.size()][];
+        int length = prefix.length + 2 + Math.max(0, parts.length - 1) + suffix.length;
+        for (int i = 0; i < parts.length; i++) {
+            parts[i] = cards ? getCard(vehicles.get(i)) : get(vehicles.get(i));
+            length += parts[i].length;
+        }
+
+        byte[] json = new byte[length];
+        System.arraycopy(prefix, 0, json, 0, prefix.length);
+        int at = prefix.length;
+        json[at++] = '[';
+        for (int i = 0; i < parts.length; i++) {
+            if (i > 0)
+                json[at++] = ',';
+            System.arraycopy(parts[i], 0, json, at, parts[i].length);
+            at += parts[i].length;
+        }
+        json[at++] = ']';
+        System.arraycopy(suffix, 0, json, at, suffix.length);
+        return json;
+    }
+
+    private Fragment fragmentFor(Vehicle vehicle) {
+        Fragment fragment = fragments.get(vehicle.getId());
+        if (fragment != null && fragment.source == vehicle)
+            return fragment;
+
+        fragment = new Fragment(vehicle);
+        fragments.put(vehicle.getId(), fragment);
+        return fragment;
+    }
+
+    private byte[] serialize(Vehicle vehicle, Object value) {
+        try {
+            return objectMapper.writeValueAsBytes(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize vehicle " + vehicle.getId(), e);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onInventoryChange(InventoryChangeEvent event) {
+        for (Vehicle vehicle : event.getUpserted()) {
+            fragments.remove(vehicle.getId());
+        }
+        for (Long id : event.getDeletedIds()) {
+            fragments.remove(id);
+        }
+    }
+}
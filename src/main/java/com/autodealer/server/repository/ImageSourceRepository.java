@@ -0,0 +1,35 @@
+package com.autodealer.server.repository;
+
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+// Which stored image an upload's original bytes were processed into (migration V8)
+@Repository
+public class ImageSourceRepository {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Transactional(readOnly = true)
+    public Optional<String> findFilename(String sourceHash) {
+        List<String> filenames = jdbcTemplate.queryForList(
+                "SELECT filename FROM image_sources WHERE source_hash = ?", String.class, sourceHash);
+        return filenames.stream().findFirst();
+    }
+
+    @Transactional
+    public void save(String sourceHash, String filename) {
+        jdbcTemplate.update("INSERT OR REPLACE INTO image_sources (source_hash, filename) VALUES (?, ?)",
+                sourceHash, filename);
+    }
+
+    @Transactional
+    public void deleteByFilename(String filename) {
+        jdbcTemplate.update("DELETE FROM image_sources WHERE filename = ?", filename);
+    }
+}
@@ -0,0 +1,47 @@
+package com.autodealer.server.repository;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.autodealer.server.entity.InventoryChange;
+
+// Reads the inventory_changes log; rows are written by triggers (migration V7)
+@Repository
+public class InventoryChangeRepository {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Transactional(readOnly = true)
+    public List<InventoryChange> findAfter(long seq, int limit) {
+        return jdbcTemplate.query(
+                "SELECT seq, vehicle_id, kind, changed_at FROM inventory_changes WHERE seq > ? ORDER BY seq LIMIT ?",
+                (rows, i) -> new InventoryChange(rows.getLong(1), rows.getLong(2), rows.getString(3), rows.getLong(4)),
+                seq, limit);
+    }
+
+    // Seq just before the oldest row still in the log (0 when nothing was pruned)
+    @Transactional(readOnly = true)
+    public long findPrunedThrough() {
+        Long seq = jdbcTemplate.queryForObject("SELECT min(seq) - 1 FROM inventory_changes", Long.class);
+        return seq != null ? seq : findLatestSeq();
+    }
+
+    // Drops rows older than the given time, always keeping the latest one so
+    // max(seq) still tells where the log ends
+    @Transactional
+    public int deleteBefore(long changedAt) {
+        return jdbcTemplate.update("DELETE FROM inventory_changes WHERE changed_at < ? "
+                + "AND seq < (SELECT max(seq) FROM inventory_changes)", changedAt);
+    }
+
+    @Transactional(readOnly = true)
+    public long findLatestSeq() {
+        Long seq = jdbcTemplate.queryForObject("SELECT max(seq) FROM inventory_changes", Long.class);
+        return seq != null ? seq : 0;
+    }
+}
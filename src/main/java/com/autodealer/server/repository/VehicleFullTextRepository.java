@@ -0,0 +1,66 @@
+package com.autodealer.server.repository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.autodealer.server.entity.Vehicle;
+
+// Database-side full-text search. The vehicles_fts table (migration V3)
+// mirrors make, model, year and the text values of detailsJson, kept in sync
+// by triggers on the vehicles table, and is queried with prefix tokens and
+// bm25 ranking instead of scanning vehicles with LIKE.
+@Repository
+public class VehicleFullTextRepository {
+
+    // bm25 column weights: make, model, year, details
+    private static final String SEARCH_SQL = "SELECT rowid FROM vehicles_fts WHERE vehicles_fts MATCH ? "
+            + "ORDER BY bm25(vehicles_fts, 10.0, 5.0, 2.0, 1.0) LIMIT ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private VehicleRepository vehicleRepository;
+
+    // Vehicles matching every word of the query (as a prefix), best first
+    @Transactional(readOnly = true)
+    public List<Vehicle> search(String query, int limit) {
+        String match = toMatchExpression(query);
+        if (match.isEmpty())
+            return List.of();
+
+        List<Long> ids = jdbcTemplate.queryForList(SEARCH_SQL, Long.class, match, limit);
+        Map<Long, Vehicle> byId = vehicleRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Vehicle::getId, Function.identity()));
+
+        List<Vehicle> ranked = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            Vehicle vehicle = byId.get(id);
+            if (vehicle != null)
+                ranked.add(vehicle);
+        }
+        return ranked;
+    }
+
+    // Each word becomes a quoted prefix token, so user input can never be
+    // read as FTS5 query syntax: porsche 91 -> "porsche"* "91"*
+    private static String toMatchExpression(String query) {
+        StringBuilder match = new StringBuilder();
+        for (String word : query.trim().split("\\s+")) {
+            if (word.isEmpty())
+                continue;
+            if (match.length() > 0)
+                match.append(' ');
+            match.append('"').append(word.replace("\"", "\"\"")).append("\"*");
+        }
+        return match.toString();
+    }
+}
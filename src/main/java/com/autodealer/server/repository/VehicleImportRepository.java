@@ -0,0 +1,87 @@
+package com.autodealer.server.repository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.autodealer.server.entity.Vehicle;
+
+// Bulk inserts for feed imports: one prepared statement and one commit per
+// chunk instead of a save() and a commit per vehicle.
+@Repository
+public class VehicleImportRepository {
+
+    private static final String INSERT_SQL = "INSERT INTO vehicles "
+            + "(make, model, year, price, mileage, status, condition, details_json, created_at, updated_at) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?) RETURNING id";
+
+    // What the per-row insert triggers do (migrations V3, V4), for the ids in
+    // a JSON array
+    private static final String INDEX_FTS_SQL = "INSERT INTO vehicles_fts (rowid, make, model, year, details) "
+            + "SELECT v.id, v.make, v.model, v.year, (SELECT group_concat(value, ' ') FROM json_each("
+            + "CASE WHEN json_valid(v.details_json) THEN v.details_json ELSE '{}' END) "
+            + "WHERE type = 'text' AND key <> 'thumbnail') FROM vehicles v WHERE v.id IN (SELECT value FROM json_each(?))";
+
+    private static final String INDEX_IMAGES_SQL = "INSERT INTO vehicle_images (vehicle_id, position, filename) "
+            + "SELECT v.id, i.key, i.value FROM vehicles v, json_each("
+            + "CASE WHEN json_valid(v.details_json) THEN v.details_json ELSE '{}' END, '$.images') i "
+            + "WHERE i.type = 'text' AND v.id IN (SELECT value FROM json_each(?))";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private VehicleRepository vehicleRepository;
+
+    // Inserts the vehicles and returns them as stored (ids, generated columns).
+    // The per-row insert triggers are switched off for the batch (see V5) and
+    // the full-text and image tables are filled for the whole chunk at once.
+    @Transactional
+    public List<Vehicle> insertAll(List<Vehicle> vehicles) {
+        jdbcTemplate.update("INSERT INTO vehicle_bulk_load (active) VALUES (1)");
+
+        // One prepared statement for the chunk; RETURNING hands back each
+        // row's id as it is inserted
+        long now = System.currentTimeMillis(); // timestamps are stored as epoch millis
+        List<Long> ids = jdbcTemplate.execute((ConnectionCallback<List<Long>>) connection -> {
+            List<Long> inserted = new ArrayList<>(vehicles.size());
+            try (PreparedStatement statement = connection.prepareStatement(INSERT_SQL)) {
+                for (Vehicle vehicle : vehicles) {
+                    statement.setString(1, vehicle.getMake());
+                    statement.setString(2, vehicle.getModel());
+                    statement.setInt(3, vehicle.getYear());
+                    statement.setDouble(4, vehicle.getPrice());
+                    statement.setInt(5, vehicle.getMileage());
+                    statement.setString(6, vehicle.getStatus());
+                    statement.setString(7, vehicle.getCondition());
+                    statement.setString(8, vehicle.getDetailsJson());
+                    statement.setLong(9, now);
+                    statement.setLong(10, now);
+                    try (ResultSet rows = statement.executeQuery()) {
+                        rows.next();
+                        inserted.add(rows.getLong(1));
+                    }
+                }
+            }
+            return inserted;
+        });
+
+        String idArray = ids.stream().map(String::valueOf).collect(Collectors.joining(",", "[", "]"));
+        jdbcTemplate.update(INDEX_FTS_SQL, idArray);
+        jdbcTemplate.update(INDEX_IMAGES_SQL, idArray);
+        jdbcTemplate.update("DELETE FROM vehicle_bulk_load");
+
+        List<Vehicle> saved = vehicleRepository.findAllById(ids);
+        saved.sort(Comparator.comparing(Vehicle::getId));
+        return saved;
+    }
+}
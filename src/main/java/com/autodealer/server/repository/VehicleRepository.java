@@ -1,9 +1,12 @@
 package com.autodealer.server.repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
-import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -11,21 +14,54 @@ import org.springframework.stereotype.Repository;
 import com.autodealer.server.entity.Vehicle;
 
 @Repository
-public interface VehicleRepository extends JpaRepository<Vehicle, Long> {
+public interface VehicleRepository extends JpaRepository<Vehicle, Long>, VehicleRepositoryCustom {
     List<Vehicle> findByStatus(String status);
 
+    // COLLATE NOCASE rather than upper(make) = upper(?) so idx_vehicles_make applies
+    @Query(value = "SELECT * FROM vehicles WHERE make = ?1 COLLATE NOCASE", nativeQuery = true)
     List<Vehicle> findByMakeIgnoreCase(String make);
 
     List<Vehicle> findByPriceBetween(Double minPrice, Double maxPrice);
 
-    // Search bar autocomplete
-    @Query("SELECT v FROM Vehicle v " +
-            "WHERE CAST(v.year AS string) LIKE CONCAT('%', :query, '%') " +
-            "OR LOWER(v.make) LIKE LOWER(CONCAT('%', :query, '%')) " +
-            "OR LOWER(v.model) LIKE LOWER(CONCAT('%', :query, '%'))")
-    List<Vehicle> searchVehicles(@Param("query") String query, Pageable pageable);
-
-    // Query only the brands
-    @Query("SELECT DISTINCT v.make FROM Vehicle v")
-    List<String> findAllDistinctMakes();
-}
\ No newline at end of file
+    // From vehicle_images, kept in sync with detailsJson.images by triggers
+    @Query(value = "SELECT filename FROM vehicle_images WHERE vehicle_id = ?1 ORDER BY position", nativeQuery = true)
+    List<String> findImageFilenames(Long vehicleId);
+
+    @Query(value = "SELECT filename FROM vehicle_images WHERE vehicle_id IN ?1", nativeQuery = true)
+    List<String> findImageFilenames(Collection<Long> vehicleIds);
+
+    // Which of these files some vehicle still uses (idx_vehicle_images_filename)
+    @Query(value = "SELECT DISTINCT filename FROM vehicle_images WHERE filename IN ?1", nativeQuery = true)
+    List<String> findReferencedFilenames(Collection<String> filenames);
+
+    @Query("SELECT v.version FROM Vehicle v WHERE v.id = :id")
+    Optional<Integer> findVersionById(@Param("id") Long id);
+
+    // --- Set-based batch changes (callers run them in one transaction) ---
+
+    @Query("SELECT v.id FROM Vehicle v WHERE v.id IN :ids ORDER BY v.id")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Vehicle v SET v.status = :status, v.updatedAt = :now, "
+            + "v.version = v.version + 1 WHERE v.id IN :ids")
+    int updateStatus(@Param("ids") Collection<Long> ids, @Param("status") String status,
+            @Param("now") LocalDateTime now);
+
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Vehicle v SET v.price = :price, v.updatedAt = :now, "
+            + "v.version = v.version + 1 WHERE v.id IN :ids")
+    int updatePrice(@Param("ids") Collection<Long> ids, @Param("price") Double price,
+            @Param("now") LocalDateTime now);
+
+    // factor 0.95 is a 5% drop; prices stay rounded to cents
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Vehicle v SET v.price = ROUND(v.price * :factor, 2), v.updatedAt = :now, "
+            + "v.version = v.version + 1 WHERE v.id IN :ids")
+    int scalePrice(@Param("ids") Collection<Long> ids, @Param("factor") double factor,
+            @Param("now") LocalDateTime now);
+
+    @Modifying(clearAutomatically = true)
+    @Query("DELETE FROM Vehicle v WHERE v.id IN :ids")
+    int deleteByIds(@Param("ids") Collection<Long> ids);
+}
@@ -0,0 +1,14 @@
+package com.autodealer.server.repository;
+
+import java.util.Map;
+import java.util.Optional;
+
+import com.autodealer.server.entity.Vehicle;
+
+public interface VehicleRepositoryCustom {
+
+    // Sets only the given fields with a single UPDATE ... WHERE id = ? AND
+    // version = ?, bumping the version. Empty when no row matched: the
+    // vehicle is gone or someone else changed it first.
+    Optional<Vehicle> patch(Long id, int version, Map<String, Object> changes);
+}
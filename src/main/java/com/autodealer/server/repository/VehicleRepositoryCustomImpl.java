@@ -0,0 +1,43 @@
+package com.autodealer.server.repository;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Optional;
+
+import org.springframework.transaction.annotation.Transactional;
+
+import com.autodealer.server.entity.Vehicle;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaUpdate;
+import jakarta.persistence.criteria.Root;
+
+public class VehicleRepositoryCustomImpl implements VehicleRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @Transactional
+    public Optional<Vehicle> patch(Long id, int version, Map<String, Object> changes) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaUpdate<Vehicle> update = builder.createCriteriaUpdate(Vehicle.class);
+        Root<Vehicle> vehicle = update.from(Vehicle.class);
+
+        for (Map.Entry<String, Object> change : changes.entrySet()) {
+            update.set(change.getKey(), change.getValue());
+        }
+        update.set(vehicle.<Integer>get("version"), builder.sum(vehicle.<Integer>get("version"), 1));
+        update.set("updatedAt", LocalDateTime.now());
+        update.where(builder.equal(vehicle.get("id"), id), builder.equal(vehicle.get("version"), version));
+
+        if (entityManager.createQuery(update).executeUpdate() == 0)
+            return Optional.empty();
+
+        // Read back in the same transaction for the response and read models
+        // (generated columns may have changed with detailsJson)
+        return Optional.ofNullable(entityManager.find(Vehicle.class, id));
+    }
+}
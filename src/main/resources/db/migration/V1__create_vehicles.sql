@@ -0,0 +1,16 @@
+-- Baseline: the vehicles table as Hibernate created it, so existing
+-- databases are adopted as-is
+CREATE TABLE IF NOT EXISTS vehicles (
+    id integer,
+    condition varchar(255) not null,
+    created_at timestamp,
+    details_json TEXT,
+    make varchar(255) not null,
+    mileage integer not null,
+    model varchar(255) not null,
+    price float not null,
+    status varchar(255) not null,
+    updated_at timestamp,
+    year integer not null,
+    primary key (id)
+);
@@ -0,0 +1,6 @@
+-- make lookups are case-insensitive, so the index is built with NOCASE
+CREATE INDEX IF NOT EXISTS idx_vehicles_make ON vehicles (make COLLATE NOCASE);
+CREATE INDEX IF NOT EXISTS idx_vehicles_status ON vehicles (status);
+CREATE INDEX IF NOT EXISTS idx_vehicles_price ON vehicles (price);
+CREATE INDEX IF NOT EXISTS idx_vehicles_year ON vehicles (year);
+CREATE INDEX IF NOT EXISTS idx_vehicles_created_at ON vehicles (created_at);
@@ -0,0 +1,36 @@
+-- Full-text index over make, model, year and the text values of details_json
+-- (minus the thumbnail file name), kept in sync by triggers
+CREATE VIRTUAL TABLE IF NOT EXISTS vehicles_fts USING fts5(
+    make, model, year, details,
+    tokenize = 'unicode61 remove_diacritics 2', prefix = '2 3'
+);
+
+CREATE TRIGGER IF NOT EXISTS vehicles_fts_insert AFTER INSERT ON vehicles BEGIN
+    INSERT INTO vehicles_fts (rowid, make, model, year, details) VALUES (
+        new.id, new.make, new.model, new.year,
+        (SELECT group_concat(value, ' ') FROM json_each(
+            CASE WHEN json_valid(new.details_json) THEN new.details_json ELSE '{}' END)
+         WHERE type = 'text' AND key <> 'thumbnail'));
+END;
+
+CREATE TRIGGER IF NOT EXISTS vehicles_fts_delete AFTER DELETE ON vehicles BEGIN
+    DELETE FROM vehicles_fts WHERE rowid = old.id;
+END;
+
+CREATE TRIGGER IF NOT EXISTS vehicles_fts_update AFTER UPDATE ON vehicles BEGIN
+    DELETE FROM vehicles_fts WHERE rowid = old.id;
+    INSERT INTO vehicles_fts (rowid, make, model, year, details) VALUES (
+        new.id, new.make, new.model, new.year,
+        (SELECT group_concat(value, ' ') FROM json_each(
+            CASE WHEN json_valid(new.details_json) THEN new.details_json ELSE '{}' END)
+         WHERE type = 'text' AND key <> 'thumbnail'));
+END;
+
+-- Rows that existed before the triggers
+INSERT INTO vehicles_fts (rowid, make, model, year, details)
+SELECT v.id, v.make, v.model, v.year,
+       (SELECT group_concat(value, ' ') FROM json_each(
+           CASE WHEN json_valid(v.details_json) THEN v.details_json ELSE '{}' END)
+        WHERE type = 'text' AND key <> 'thumbnail')
+FROM vehicles v
+WHERE v.id NOT IN (SELECT rowid FROM vehicles_fts);
@@ -0,0 +1,62 @@
+-- Frequently read detailsJson fields as generated columns, so they can be
+-- selected and indexed without parsing JSON. Spec fields are free-form labels
+-- typed in the admin dashboard, so the common spellings are all accepted.
+ALTER TABLE vehicles ADD COLUMN thumbnail TEXT GENERATED ALWAYS AS (
+    CASE WHEN json_valid(details_json) THEN json_extract(details_json, '$.thumbnail') END) VIRTUAL;
+
+ALTER TABLE vehicles ADD COLUMN transmission TEXT GENERATED ALWAYS AS (
+    CASE WHEN json_valid(details_json) THEN coalesce(
+        json_extract(details_json, '$.Transmission'),
+        json_extract(details_json, '$.transmission')) END) VIRTUAL;
+
+ALTER TABLE vehicles ADD COLUMN fuel_type TEXT GENERATED ALWAYS AS (
+    CASE WHEN json_valid(details_json) THEN coalesce(
+        json_extract(details_json, '$."Fuel Type"'),
+        json_extract(details_json, '$.Fuel'),
+        json_extract(details_json, '$.fuelType')) END) VIRTUAL;
+
+ALTER TABLE vehicles ADD COLUMN body_style TEXT GENERATED ALWAYS AS (
+    CASE WHEN json_valid(details_json) THEN coalesce(
+        json_extract(details_json, '$."Body Style"'),
+        json_extract(details_json, '$."Body Type"'),
+        json_extract(details_json, '$.bodyStyle')) END) VIRTUAL;
+
+CREATE INDEX IF NOT EXISTS idx_vehicles_transmission ON vehicles (transmission COLLATE NOCASE);
+CREATE INDEX IF NOT EXISTS idx_vehicles_fuel_type ON vehicles (fuel_type COLLATE NOCASE);
+CREATE INDEX IF NOT EXISTS idx_vehicles_body_style ON vehicles (body_style COLLATE NOCASE);
+
+-- One row per entry of detailsJson.images, in order, kept in sync by triggers
+CREATE TABLE IF NOT EXISTS vehicle_images (
+    vehicle_id integer not null,
+    position integer not null,
+    filename TEXT not null,
+    primary key (vehicle_id, position)
+);
+
+CREATE INDEX IF NOT EXISTS idx_vehicle_images_filename ON vehicle_images (filename);
+
+CREATE TRIGGER IF NOT EXISTS vehicle_images_insert AFTER INSERT ON vehicles BEGIN
+    INSERT INTO vehicle_images (vehicle_id, position, filename)
+    SELECT new.id, key, value FROM json_each(
+        CASE WHEN json_valid(new.details_json) THEN new.details_json ELSE '{}' END, '$.images')
+    WHERE type = 'text';
+END;
+
+CREATE TRIGGER IF NOT EXISTS vehicle_images_update AFTER UPDATE OF details_json ON vehicles BEGIN
+    DELETE FROM vehicle_images WHERE vehicle_id = old.id;
+    INSERT INTO vehicle_images (vehicle_id, position, filename)
+    SELECT new.id, key, value FROM json_each(
+        CASE WHEN json_valid(new.details_json) THEN new.details_json ELSE '{}' END, '$.images')
+    WHERE type = 'text';
+END;
+
+CREATE TRIGGER IF NOT EXISTS vehicle_images_delete AFTER DELETE ON vehicles BEGIN
+    DELETE FROM vehicle_images WHERE vehicle_id = old.id;
+END;
+
+-- Backfill existing vehicles
+INSERT OR IGNORE INTO vehicle_images (vehicle_id, position, filename)
+SELECT v.id, i.key, i.value
+FROM vehicles v, json_each(
+    CASE WHEN json_valid(v.details_json) THEN v.details_json ELSE '{}' END, '$.images') i
+WHERE i.type = 'text';
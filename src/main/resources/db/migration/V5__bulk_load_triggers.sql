@@ -0,0 +1,27 @@
+-- Bulk imports index a whole chunk with one set-based statement, which is far
+-- cheaper than running the insert triggers once per row. While
+-- vehicle_bulk_load has a row the per-row insert triggers stand aside; the
+-- importer adds and removes that row inside its own transaction, so no other
+-- connection ever sees it.
+CREATE TABLE IF NOT EXISTS vehicle_bulk_load (active integer not null);
+
+DROP TRIGGER IF EXISTS vehicles_fts_insert;
+
+CREATE TRIGGER vehicles_fts_insert AFTER INSERT ON vehicles
+WHEN NOT EXISTS (SELECT 1 FROM vehicle_bulk_load) BEGIN
+    INSERT INTO vehicles_fts (rowid, make, model, year, details) VALUES (
+        new.id, new.make, new.model, new.year,
+        (SELECT group_concat(value, ' ') FROM json_each(
+            CASE WHEN json_valid(new.details_json) THEN new.details_json ELSE '{}' END)
+         WHERE type = 'text' AND key <> 'thumbnail'));
+END;
+
+DROP TRIGGER IF EXISTS vehicle_images_insert;
+
+CREATE TRIGGER vehicle_images_insert AFTER INSERT ON vehicles
+WHEN NOT EXISTS (SELECT 1 FROM vehicle_bulk_load) BEGIN
+    INSERT INTO vehicle_images (vehicle_id, position, filename)
+    SELECT new.id, key, value FROM json_each(
+        CASE WHEN json_valid(new.details_json) THEN new.details_json ELSE '{}' END, '$.images')
+    WHERE type = 'text';
+END;
@@ -0,0 +1,3 @@
+-- Optimistic locking: every update bumps version, and a PATCH only applies
+-- when the client's version still matches
+ALTER TABLE vehicles ADD COLUMN version integer not null default 0;
@@ -0,0 +1,25 @@
+-- Append-only change log for the SSE feed. Written by triggers, so every
+-- write path (single edits, PATCH, batch, import) logs in its own
+-- transaction. AUTOINCREMENT keeps seq strictly increasing, never reused,
+-- which is what clients resume from.
+CREATE TABLE IF NOT EXISTS inventory_changes (
+    seq integer primary key autoincrement,
+    vehicle_id integer not null,
+    kind TEXT not null,
+    changed_at integer not null
+);
+
+CREATE TRIGGER IF NOT EXISTS inventory_changes_insert AFTER INSERT ON vehicles BEGIN
+    INSERT INTO inventory_changes (vehicle_id, kind, changed_at)
+    VALUES (new.id, 'created', CAST(unixepoch('subsec') * 1000 AS integer));
+END;
+
+CREATE TRIGGER IF NOT EXISTS inventory_changes_update AFTER UPDATE ON vehicles BEGIN
+    INSERT INTO inventory_changes (vehicle_id, kind, changed_at)
+    VALUES (new.id, 'updated', CAST(unixepoch('subsec') * 1000 AS integer));
+END;
+
+CREATE TRIGGER IF NOT EXISTS inventory_changes_delete AFTER DELETE ON vehicles BEGIN
+    INSERT INTO inventory_changes (vehicle_id, kind, changed_at)
+    VALUES (old.id, 'deleted', CAST(unixepoch('subsec') * 1000 AS integer));
+END;
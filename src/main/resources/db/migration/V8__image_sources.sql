@@ -0,0 +1,9 @@
+-- Upload dedupe: the SHA-256 of an uploaded file's original bytes -> the
+-- content-addressed name it was stored under, so the same photo uploaded
+-- again reuses that file without being decoded and resized.
+CREATE TABLE IF NOT EXISTS image_sources (
+    source_hash TEXT primary key,
+    filename TEXT not null
+);
+
+CREATE INDEX IF NOT EXISTS idx_image_sources_filename ON image_sources (filename);
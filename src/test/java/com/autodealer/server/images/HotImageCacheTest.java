@@ -0,0 +1,95 @@
+package com.autodealer.server.images;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+class HotImageCacheTest {
+
+    @TempDir
+    Path dir;
+
+    private HotImageCache cache;
+    private final List<Path> small = new ArrayList<>();
+
+    // A full cache: ten 100-byte images, each requested once
+    @BeforeEach
+    void fill() throws IOException {
+        cache = new HotImageCache();
+        ReflectionTestUtils.setField(cache, "maxSize", 1000L);
+        ReflectionTestUtils.setField(cache, "maxEntrySize", 1000L);
+        for (int i = 0; i < 10; i++) {
+            Path file = image("small-" + i + ".jpg", 100);
+            request(file, 1);
+            assertNotNull(cache.load(file, 100, 0));
+            small.add(file);
+        }
+        assertEquals(1000, cache.stats().size());
+    }
+
+    @Test
+    void hotterImageDisplacesLeastRecentlyUsed() throws IOException {
+        Path large = image("large.jpg", 300);
+        request(large, 5);
+
+        assertNotNull(cache.load(large, 300, 0));
+
+        HotImageCache.Stats stats = cache.stats();
+        assertEquals(3, stats.evictions());
+        assertEquals(0, stats.rejections());
+        assertEquals(8, stats.entries());
+        assertEquals(1000, stats.size());
+        assertNotNull(cache.get(large));
+        for (int i = 0; i < 3; i++) {
+            assertNull(cache.get(small.get(i)));
+        }
+        assertNotNull(cache.get(small.get(3)));
+    }
+
+    @Test
+    void colderImageIsRejected() throws IOException {
+        Path large = image("large.jpg", 300);
+        request(large, 1);
+
+        assertNull(cache.load(large, 300, 0));
+
+        HotImageCache.Stats stats = cache.stats();
+        assertEquals(1, stats.rejections());
+        assertEquals(0, stats.evictions());
+        assertEquals(10, stats.entries());
+    }
+
+    @Test
+    void invalidateDropsRenditions() throws IOException {
+        Path card = image("upload-card.jpg", 100);
+        request(card, 5);
+        assertNotNull(cache.load(card, 100, 0));
+
+        cache.invalidate("upload.jpg");
+
+        assertNull(cache.get(card));
+    }
+
+    // As ImageFileServer does for an existing file that is not cached
+    private void request(Path file, int times) {
+        for (int i = 0; i < times; i++) {
+            assertNull(cache.get(file));
+            cache.miss(file);
+        }
+    }
+
+    private Path image(String name, int length) throws IOException {
+        return Files.write(dir.resolve(name), new byte[length]);
+    }
+}
@@ -0,0 +1,64 @@
+package com.autodealer.server.inventory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.autodealer.server.controller.AdminController;
+import com.autodealer.server.entity.VehicleBatchRequest;
+import com.autodealer.server.images.ImageJanitor;
+import com.autodealer.server.repository.VehicleRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+class VehicleBatchUpdaterTest {
+
+    // Configured like Spring's, which ignores unknown properties
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+    private VehicleRepository vehicleRepository;
+    private InventoryIndex inventoryIndex;
+    private AdminController controller;
+
+    @BeforeEach
+    void setUp() {
+        vehicleRepository = mock(VehicleRepository.class);
+        inventoryIndex = mock(InventoryIndex.class);
+
+        VehicleBatchUpdater updater = new VehicleBatchUpdater();
+        ReflectionTestUtils.setField(updater, "vehicleRepository", vehicleRepository);
+        ReflectionTestUtils.setField(updater, "inventoryIndex", inventoryIndex);
+        ReflectionTestUtils.setField(updater, "eventPublisher", mock(ApplicationEventPublisher.class));
+
+        controller = new AdminController();
+        ReflectionTestUtils.setField(controller, "vehicleBatchUpdater", updater);
+        ReflectionTestUtils.setField(controller, "inventoryIndex", inventoryIndex);
+        ReflectionTestUtils.setField(controller, "imageJanitor", mock(ImageJanitor.class));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "{\"filter\":{},\"delete\":true}",
+            "{\"filter\":{\"status\":\" \"},\"delete\":true}",
+            "{\"filter\":{\"stauts\":\"SOLD\"},\"delete\":true}",
+            "{\"filter\":{\"status\":\"SOLD\",\"colour\":\"red\"},\"delete\":true}" })
+    void emptyOrUnknownFilterIsRejectedAndDeletesNothing(String body) throws Exception {
+        VehicleBatchRequest request = objectMapper.readValue(body, VehicleBatchRequest.class);
+
+        ResponseEntity<?> response = controller.batchUpdate(request);
+
+        assertEquals(400, response.getStatusCode().value());
+        verifyNoInteractions(vehicleRepository);
+        verify(inventoryIndex, never()).findIds(any());
+    }
+}